@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bjc.inflexion.EnglishUtils;
+
+/**
+ * Benchmarks for picking indefinite articles, over the built-in nouns and the
+ * special cases of the article rules.
+ *
+ * @author bjculkin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArticleBenchmark {
+	/* The words to pick articles for. */
+	private String[] words;
+
+	/* The next word to pick an article for. */
+	private int next;
+
+	/**
+	 * Load the words.
+	 */
+	@Setup
+	public void setup() {
+		words = BenchmarkData.articleWords();
+	}
+
+	/**
+	 * Pick an article for a word.
+	 *
+	 * @return The article.
+	 */
+	@Benchmark
+	public String pickIndefinite() {
+		final String word = words[next];
+
+		next = (next + 1) % words.length;
+
+		return EnglishUtils.pickIndefinite(word);
+	}
+}
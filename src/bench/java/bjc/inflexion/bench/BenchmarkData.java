@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+
+/**
+ * Loads the inputs the benchmarks run over.
+ *
+ * @author bjculkin
+ */
+final class BenchmarkData {
+	/*
+	 * Words that hit each of the special cases of the article rules: vowels that
+	 * sound like consonants, silent 'h's, abbreviations, single letters, and
+	 * words starting with 'y'.
+	 */
+	private static final String[] SPECIAL_ARTICLE_WORDS = {
+			"unicorn", "unit", "united", "universe", "unimodal", "unanimous",
+			"unindexed", "uninformed", "ubiquitous", "usurer", "utopia", "uterus",
+			"umbrella", "one", "once", "onetime", "onion", "ounce", "euler", "eulogy",
+			"european", "ewe", "hour", "hourly", "houri", "heir", "heirloom", "honest",
+			"honour", "honorific", "UK", "UN", "UNESCO", "FBI", "FAQ", "UFO", "LED",
+			"SUV", "XML", "MRI", "HTML", "NY", "RSVP", "SCUBA", "a", "b", "e", "h", "u",
+			"x", "y", "x-ray", "f-stop", "u-turn", "yttrium", "ygg", "yblent", "yclept",
+			"ypsilanti", "year", "yellow", "8", "11", "18"
+	};
+
+	private BenchmarkData() {
+		// Utility class
+	}
+
+	/**
+	 * Get every word in the built-in noun database.
+	 *
+	 * Suffix rules and compound templates are left out, since they aren't words
+	 * themselves.
+	 *
+	 * @return The words in the noun database.
+	 */
+	static String[] nounVocabulary() {
+		final Set<String> words = new LinkedHashSet<>();
+
+		try (Scanner scn = new Scanner(resource("/nouns.txt"))) {
+			while (scn.hasNextLine()) {
+				final String ln = scn.nextLine().trim();
+
+				if (ln.startsWith("#") || ln.equals("")) {
+					continue;
+				}
+
+				for (String part : ln.split("=>|\\|")) {
+					final String word = part.trim().replace("*", "");
+
+					if (word.equals("") || word.startsWith("-") || word.contains("(")) {
+						continue;
+					}
+
+					words.add(word);
+				}
+			}
+		}
+
+		return words.toArray(new String[0]);
+	}
+
+	/**
+	 * Get words to pick indefinite articles for.
+	 *
+	 * These are the words in the built-in noun database, mixed with words that
+	 * hit each of the special cases in the article rules.
+	 *
+	 * @return The words to pick articles for.
+	 */
+	static String[] articleWords() {
+		final List<String> words = new ArrayList<>(Arrays.asList(nounVocabulary()));
+
+		// Spread the special cases out among the ordinary words
+		final int stride = Math.max(1, words.size() / SPECIAL_ARTICLE_WORDS.length);
+		for (int i = 0; i < SPECIAL_ARTICLE_WORDS.length; i++) {
+			words.add(Math.min(words.size(), i * (stride + 1)), SPECIAL_ARTICLE_WORDS[i]);
+		}
+
+		return words.toArray(new String[0]);
+	}
+
+	/* Open a resource, failing if it isn't there. */
+	private static InputStream resource(final String name) {
+		final InputStream strim = BenchmarkData.class.getResourceAsStream(name);
+
+		if (strim == null)
+			throw new UncheckedIOException(
+					new IOException("Missing benchmark resource " + name));
+
+		return strim;
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with allocation profiling turned on.
+ *
+ * Takes the same arguments as the standard JMH launcher, so a subset of the
+ * benchmarks can be picked with a regex.
+ *
+ * @author bjculkin
+ */
+public class BenchmarkRunner {
+	/**
+	 * Run the benchmarks.
+	 *
+	 * @param args
+	 *             The JMH command line options.
+	 *
+	 * @throws RunnerException
+	 *                                    If the benchmarks fail to run.
+	 * @throws IOException
+	 *                                    If the benchmark list can't be read.
+	 * @throws CommandLineOptionException
+	 *                                    If the options are invalid.
+	 */
+	public static void main(final String[] args)
+			throws RunnerException, IOException, CommandLineOptionException {
+		final CommandLineOptions cmdOptions = new CommandLineOptions(args);
+
+		if (cmdOptions.shouldHelp() || cmdOptions.shouldList()
+				|| cmdOptions.shouldListProfilers()
+				|| cmdOptions.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+
+			return;
+		}
+
+		final Options opts = new OptionsBuilder().parent(cmdOptions)
+				.addProfiler(GCProfiler.class).build();
+
+		new Runner(opts).run();
+	}
+}
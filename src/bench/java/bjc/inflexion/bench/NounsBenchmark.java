@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bjc.inflexion.Inflector;
+import bjc.inflexion.nouns.Noun;
+import bjc.inflexion.nouns.NounForms;
+import bjc.inflexion.nouns.Nouns;
+
+/**
+ * Benchmarks for looking up nouns, over every word in the noun database.
+ *
+ * @author bjculkin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NounsBenchmark {
+	/**
+	 * The number of nouns to cache, or zero to not cache them.
+	 */
+	@Param({
+			"0", "4096"
+	})
+	public int cacheSize;
+
+	/* The database being looked up in. */
+	private Nouns nounDB;
+
+	/* The words to look up. */
+	private String[] words;
+
+	/* The next word to look up. */
+	private int next;
+
+	/**
+	 * Load the noun database.
+	 */
+	@Setup
+	public void setup() {
+		nounDB = Inflector.load(cacheSize).getNouns();
+		words = BenchmarkData.nounVocabulary();
+	}
+
+	/**
+	 * Look up a noun.
+	 *
+	 * @return The noun.
+	 */
+	@Benchmark
+	public Noun getNoun() {
+		return nounDB.getNoun(nextWord());
+	}
+
+	/**
+	 * Look up a noun, and resolve all of its forms.
+	 *
+	 * @return The forms of the noun.
+	 */
+	@Benchmark
+	public NounForms getForms() {
+		return nounDB.getForms(nextWord());
+	}
+
+	/**
+	 * Look up a noun, and work out its plural.
+	 *
+	 * @return The plural of the noun.
+	 */
+	@Benchmark
+	public String plural() {
+		return nounDB.getNoun(nextWord()).plural();
+	}
+
+	/* Cycle through the vocabulary. */
+	private String nextWord() {
+		final String word = words[next];
+
+		next = (next + 1) % words.length;
+
+		return word;
+	}
+}
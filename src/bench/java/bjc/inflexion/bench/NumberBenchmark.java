@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.bench;
+
+import java.text.ParsePosition;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bjc.inflexion.NumberUtils;
+
+/**
+ * Benchmarks for converting numbers to text, and back.
+ *
+ * @author bjculkin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberBenchmark {
+	/* The number of values to cycle through. */
+	private static final int NUM_VALUES = 1024;
+
+	/**
+	 * The largest value to convert.
+	 */
+	@Param({
+			"100", "1000000", "999999999999"
+	})
+	public long maxValue;
+
+	/* The values to convert. */
+	private long[] values;
+
+	/* The values to convert, as cardinals. */
+	private String[] cardinals;
+
+	/* The position to parse cardinals from. */
+	private final ParsePosition pos = new ParsePosition(0);
+
+	/* The next value to convert. */
+	private int next;
+
+	/**
+	 * Pick the values to convert.
+	 */
+	@Setup
+	public void setup() {
+		final SplittableRandom rand = new SplittableRandom(42);
+
+		values = new long[NUM_VALUES];
+		for (int i = 0; i < NUM_VALUES; i++) {
+			values[i] = rand.nextLong(maxValue + 1);
+		}
+
+		cardinals = new String[NUM_VALUES];
+		for (int i = 0; i < NUM_VALUES; i++) {
+			cardinals[i] = NumberUtils.toCardinal(values[i]);
+		}
+	}
+
+	/**
+	 * Convert a number to a cardinal.
+	 *
+	 * @return The cardinal.
+	 */
+	@Benchmark
+	public String toCardinal() {
+		return NumberUtils.toCardinal(nextValue());
+	}
+
+	/**
+	 * Convert a number to a long-form ordinal.
+	 *
+	 * @return The ordinal.
+	 */
+	@Benchmark
+	public String toOrdinal() {
+		return NumberUtils.toOrdinal(nextValue(), true);
+	}
+
+	/**
+	 * Convert a number to a short-form ordinal.
+	 *
+	 * @return The ordinal.
+	 */
+	@Benchmark
+	public String toShortOrdinal() {
+		return NumberUtils.toOrdinal(nextValue(), false);
+	}
+
+	/**
+	 * Convert a number to a comma-separated string.
+	 *
+	 * @return The string.
+	 */
+	@Benchmark
+	public String toCommaString() {
+		return NumberUtils.toCommaString(nextValue(), 0, ' ', 3, ',', false, 10);
+	}
+
+	/**
+	 * Parse a cardinal back into a number.
+	 *
+	 * @return The number.
+	 */
+	@Benchmark
+	public long parseCardinal() {
+		final String cardinal = cardinals[next];
+
+		next = (next + 1) % NUM_VALUES;
+
+		pos.setIndex(0);
+		return NumberUtils.parseNumber(cardinal, pos);
+	}
+
+	/* Cycle through the values. */
+	private long nextValue() {
+		final long value = values[next];
+
+		next = (next + 1) % NUM_VALUES;
+
+		return value;
+	}
+}
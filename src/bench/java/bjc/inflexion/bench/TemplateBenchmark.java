@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bjc.inflexion.InflectionBindings;
+import bjc.inflexion.InflectionML;
+import bjc.inflexion.InflectionRenderer;
+import bjc.inflexion.InflectionString;
+import bjc.inflexion.Inflector;
+
+/**
+ * Benchmarks comparing inflection markup against compiled inflection strings
+ * for the same output.
+ *
+ * @author bjculkin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+	/**
+	 * The count to inflect for.
+	 */
+	@Param({
+			"0", "1", "7"
+	})
+	public int count;
+
+	/**
+	 * The noun to inflect.
+	 */
+	@Param({
+			"outcome", "formula", "mother-in-law"
+	})
+	public String noun;
+
+	/* The inflector to use. */
+	private Inflector inflector;
+
+	/* The markup, with the count and noun filled in. */
+	private String markup;
+
+	/* The same markup, compiled with the count and noun as variables. */
+	private InflectionString compiled;
+
+	/* The compiled string, specialized for rendering. */
+	private InflectionRenderer specialized;
+
+	/* Reusable bindings for the compiled string. */
+	private InflectionBindings bindings;
+
+	/**
+	 * Build the templates.
+	 */
+	@Setup
+	public void setup() {
+		inflector = Inflector.getDefault();
+
+		markup = String.format("Found <#a:%d> <N:%s> in <#w:%d> <N:file>", count, noun,
+				count);
+		compiled = inflector.compile("Found <#a:$1> <N:$2> in <#w:$1> <N:file>");
+		specialized = compiled.specialize();
+
+		bindings = compiled.newBindings().set("1", count).set("2", noun);
+	}
+
+	/**
+	 * Inflect the markup.
+	 *
+	 * @return The inflected string.
+	 */
+	@Benchmark
+	public String markup() {
+		return InflectionML.inflect(inflector, markup);
+	}
+
+	/**
+	 * Inflect the compiled string.
+	 *
+	 * @return The inflected string.
+	 */
+	@Benchmark
+	public String compiled() {
+		return compiled.inflect(count, noun);
+	}
+
+	/**
+	 * Inflect the specialized string.
+	 *
+	 * @return The inflected string.
+	 */
+	@Benchmark
+	public String specialized() {
+		return specialized.inflect(count, noun);
+	}
+
+	/**
+	 * Inflect the specialized string, with reused bindings.
+	 *
+	 * @return The inflected string.
+	 */
+	@Benchmark
+	public String bound() {
+		return specialized.inflect(bindings);
+	}
+
+	/**
+	 * Compile the string, then inflect it.
+	 *
+	 * @return The inflected string.
+	 */
+	@Benchmark
+	public String compileAndInflect() {
+		return new InflectionString(inflector,
+				"Found <#a:$1> <N:$2> in <#w:$1> <N:file>").inflect(count, noun);
+	}
+}
@@ -0,0 +1,198 @@
+/**
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.nouns;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Build-time generator for the Java tables of the built-in noun and
+ * preposition databases.
+ *
+ * The build compiles this along with {@link NounRule} and {@link Prepositions}
+ * before the rest of the library, so the text files are read by the same code
+ * that reads them at runtime. The tables hold the rules already prepared, so
+ * loading them only has to compile the patterns of compound nouns.
+ *
+ * @author bjculkin
+ */
+public class NounTableGenerator {
+	/* The name of the generated class. */
+	private static final String CLASS_NAME = "PredefinedTables";
+
+	/* The number of statements to put in each generated method. */
+	private static final int CHUNK_SIZE = 250;
+
+	/**
+	 * Generate the tables.
+	 *
+	 * @param args
+	 *             The preposition file, the noun file, and the directory to
+	 *             write generated sources to.
+	 *
+	 * @throws IOException
+	 *                     If something goes wrong reading or writing files.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 3) {
+			System.err.println(
+					"Usage: NounTableGenerator <prepositions file> <nouns file> <output directory>");
+
+			System.exit(1);
+		}
+
+		final Prepositions prepositionDB = new Prepositions();
+		try (InputStream strim = new FileInputStream(args[0])) {
+			prepositionDB.loadFromStream(strim);
+		}
+
+		final List<String> prepositions = new ArrayList<>();
+		for (final String word : new TreeSet<>(prepositionDB.getPrepositions())) {
+			prepositions.add(String.format("prepDB.addPreposition(%s);", literal(word)));
+		}
+
+		final List<String> nouns = new ArrayList<>();
+		try (InputStream strim = new FileInputStream(args[1])) {
+			NounRule.read(strim,
+					rule -> nouns.add(String.format("nounDB.addRule(%s);", source(rule))));
+		}
+
+		final Path dir = Paths.get(args[2], "bjc", "inflexion", "nouns");
+		Files.createDirectories(dir);
+
+		try (PrintWriter out = new PrintWriter(
+				Files.newBufferedWriter(dir.resolve(CLASS_NAME + ".java"),
+						StandardCharsets.UTF_8))) {
+			writeClass(out, prepositions, nouns);
+		}
+	}
+
+	/* Turn a rule into the code that creates it. */
+	private static String source(final NounRule rule) {
+		final String forms = String.format("%s, %s, %s", literal(rule.singular),
+				literal(rule.modernPlural), literal(rule.classicalPlural));
+
+		switch (rule.kind) {
+		case COMPOUND:
+			final StringBuilder sb = new StringBuilder();
+			sb.append(String.format("NounRule.compound(%s, %b, %b", forms,
+					rule.hasPreposition, rule.hasScratch));
+
+			for (final String patt : rule.patterns) {
+				sb.append(", ").append(literal(patt));
+			}
+
+			return sb.append(')').toString();
+		case COMPLETE:
+			return String.format("NounRule.complete(%s)", forms);
+		case INCOMPLETE:
+			return String.format("NounRule.incomplete(%s)", forms);
+		default:
+			return String.format("NounRule.irregular(%s)", forms);
+		}
+	}
+
+	/* Write out the generated class. */
+	private static void writeClass(final PrintWriter out, final List<String> prepositions,
+			final List<String> nouns) {
+		out.println("/* Generated by bjc.inflexion.nouns.NounTableGenerator. Do not edit. */");
+		out.println("package bjc.inflexion.nouns;");
+		out.println();
+		out.println("/**");
+		out.println(" * The built-in noun and preposition databases, compiled from their text");
+		out.println(" * files at build time.");
+		out.println(" */");
+		out.printf("final class %s {%n", CLASS_NAME);
+		out.printf("\tprivate %s() {%n", CLASS_NAME);
+		out.println("\t\t// Utility class");
+		out.println("\t}");
+
+		writeLoader(out, "loadPrepositions", "Prepositions prepDB", "prepDB",
+				"Add the built-in prepositions to a database.", prepositions);
+		writeLoader(out, "loadNouns", "Nouns nounDB", "nounDB",
+				"Add the built-in nouns to a database, in the order they were defined.",
+				nouns);
+
+		out.println("}");
+	}
+
+	/*
+	 * Write out a method that runs a list of statements.
+	 *
+	 * The statements are split across methods, to stay under the limit on the
+	 * size of a method.
+	 */
+	private static void writeLoader(final PrintWriter out, final String name,
+			final String param, final String arg, final String doc,
+			final List<String> statements) {
+		final int numChunks = (statements.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+		out.println();
+		out.println("\t/**");
+		out.printf("\t * %s%n", doc);
+		out.println("\t *");
+		out.printf("\t * @param %s%n", arg);
+		out.println("\t *               The database to add to.");
+		out.println("\t */");
+		out.printf("\tstatic void %s(final %s) {%n", name, param);
+		for (int i = 0; i < numChunks; i++) {
+			out.printf("\t\t%s%d(%s);%n", name, i, arg);
+		}
+		out.println("\t}");
+
+		for (int i = 0; i < numChunks; i++) {
+			out.println();
+			out.printf("\tprivate static void %s%d(final %s) {%n", name, i, param);
+
+			final int end = Math.min(statements.size(), (i + 1) * CHUNK_SIZE);
+			for (int j = i * CHUNK_SIZE; j < end; j++) {
+				out.printf("\t\t%s%n", statements.get(j));
+			}
+
+			out.println("\t}");
+		}
+	}
+
+	/* Convert a string into a Java literal. */
+	private static String literal(final String val) {
+		if (val == null)
+			return "null";
+
+		final StringBuilder sb = new StringBuilder("\"");
+
+		for (int i = 0; i < val.length(); i++) {
+			final char ch = val.charAt(i);
+
+			if (ch == '"' || ch == '\\') {
+				sb.append('\\').append(ch);
+			} else if (ch < ' ' || ch > '~') {
+				sb.append(String.format("\\u%04x", (int) ch));
+			} else {
+				sb.append(ch);
+			}
+		}
+
+		return sb.append('"').toString();
+	}
+}
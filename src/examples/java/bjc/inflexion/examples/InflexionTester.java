@@ -29,9 +29,8 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 
-import bjc.inflexion.InflectionML;
+import bjc.inflexion.Inflector;
 import bjc.inflexion.nouns.Nouns;
-import bjc.inflexion.nouns.Prepositions;
 
 /**
  * Test inflecting words.
@@ -47,20 +46,7 @@ public class InflexionTester {
 	 *             Unused CLI args.
 	 */
 	public static void main(final String[] args) {
-		final Prepositions prepositionDB = new Prepositions();
-		try (InputStream strim
-				= InflectionML.class.getResourceAsStream("/prepositions.txt")) {
-			prepositionDB.loadFromStream(strim);
-		} catch (IOException ioex) {
-			ioex.printStackTrace();
-		}
-
-		Nouns nounDB = new Nouns(prepositionDB);
-		try (InputStream strim = InflectionML.class.getResourceAsStream("/nouns.txt")) {
-			nounDB.loadFromStream(strim);
-		} catch (IOException ioex) {
-			ioex.printStackTrace();
-		}
+		final Inflector inflector = Inflector.getDefault();
 
 		final Scanner scn = new Scanner(System.in);
 
@@ -70,7 +56,7 @@ public class InflexionTester {
 		while (!ln.equals("")) {
 			System.out.println();
 
-			final String inflected = InflectionML.inflect(ln);
+			final String inflected = inflector.inflect(ln);
 
 			System.out.println("Inflected string: " + inflected);
 
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output buffer for inflected strings, which can hold places for indefinite
+ * articles until the noun that picks them is known.
+ *
+ * Text before the first open article slot goes straight into the finished
+ * output. Text after an open slot is kept in its own segment, and is copied
+ * into the output once the slot is filled. Since slots are filled by the next
+ * noun, that is normally only the text between a count and its noun.
+ *
+ * @author bjculkin
+ */
+final class ArticleBuffer {
+	/* The finished output, up to the first open slot. */
+	private final StringBuilder head = new StringBuilder();
+
+	/* The text following each open slot. Reused between slots. */
+	private final List<StringBuilder> segments = new ArrayList<>();
+
+	/* The number of open slots. */
+	private int openSlots = 0;
+
+	/**
+	 * Add text to the end of the buffer.
+	 *
+	 * @param text
+	 *             The text to add.
+	 *
+	 * @return The buffer.
+	 */
+	ArticleBuffer append(final String text) {
+		current().append(text);
+
+		return this;
+	}
+
+	/**
+	 * Hold a place for an article at the end of the buffer.
+	 */
+	void reserveArticle() {
+		if (openSlots == segments.size()) {
+			segments.add(new StringBuilder());
+		}
+
+		openSlots += 1;
+	}
+
+	/**
+	 * Check if there are any article slots waiting to be filled.
+	 *
+	 * @return Whether there are any open article slots.
+	 */
+	boolean hasOpenArticle() {
+		return openSlots > 0;
+	}
+
+	/**
+	 * Fill every open article slot.
+	 *
+	 * @param article
+	 *                The article to fill them with.
+	 */
+	void fillArticles(final String article) {
+		for (int i = 0; i < openSlots; i++) {
+			final StringBuilder segment = segments.get(i);
+
+			head.append(article).append(segment);
+
+			segment.setLength(0);
+		}
+
+		openSlots = 0;
+	}
+
+	/**
+	 * Get the amount of text waiting on open article slots.
+	 *
+	 * @return The number of characters after the first open slot.
+	 */
+	int pendingLength() {
+		int length = 0;
+
+		for (int i = 0; i < openSlots; i++) {
+			length += segments.get(i).length();
+		}
+
+		return length;
+	}
+
+	/**
+	 * Write out the finished part of the buffer, and remove it.
+	 *
+	 * Text after an open article slot stays in the buffer until the slot is
+	 * filled.
+	 *
+	 * @param out
+	 *            The writer to write to.
+	 *
+	 * @throws IOException
+	 *                     If the writer can't be written to.
+	 */
+	void drainTo(final Writer out) throws IOException {
+		out.append(head);
+
+		head.setLength(0);
+	}
+
+	/**
+	 * Empty the buffer, so it can be reused.
+	 */
+	void clear() {
+		head.setLength(0);
+
+		for (final StringBuilder segment : segments) {
+			segment.setLength(0);
+		}
+
+		openSlots = 0;
+	}
+
+	@Override
+	public String toString() {
+		if (openSlots > 0)
+			throw new IllegalStateException("Article slot was never filled");
+
+		return head.toString();
+	}
+
+	/* Get the place new text should go. */
+	private StringBuilder current() {
+		if (openSlots == 0)
+			return head;
+
+		return segments.get(openSlots - 1);
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+
+/**
+ * Inflects a string for many rows of arguments, split up between the workers
+ * of a fork-join pool.
+ *
+ * Rows are split until there are a few pieces per worker. Each piece is
+ * rendered with a single buffer, reused for every row in it. The results of
+ * each piece are either handed to a sink as they are made, or kept in order
+ * and joined back up with those of the other pieces.
+ *
+ * @author bjculkin
+ */
+final class BulkRenderTask extends RecursiveTask<List<List<String>>> {
+	private static final long serialVersionUID = -3178425569034412367L;
+
+	/* The fewest rows worth splitting off for another worker. */
+	private static final long MIN_PIECE = 256;
+
+	/* The number of pieces to aim for, per worker. */
+	private static final int PIECES_PER_WORKER = 4;
+
+	/* The string to inflect. */
+	private final InflectionString template;
+
+	/* The rows to inflect it for. */
+	private final Spliterator<Object[]> rows;
+
+	/* Where to send results, or null to keep them. */
+	private final BiConsumer<? super Object[], ? super String> sink;
+
+	/* Pieces no bigger than this aren't split any further. */
+	private final long pieceSize;
+
+	/**
+	 * Create a new task.
+	 *
+	 * @param template
+	 *                    The string to inflect.
+	 * @param rows
+	 *                    The rows to inflect it for.
+	 * @param sink
+	 *                    Where to send each row and its result, or null to
+	 *                    return the results instead.
+	 * @param parallelism
+	 *                    The number of workers the task will run on.
+	 */
+	BulkRenderTask(final InflectionString template, final Spliterator<Object[]> rows,
+			final BiConsumer<? super Object[], ? super String> sink,
+			final int parallelism) {
+		this(template, rows, sink, pieceSize(rows, parallelism));
+	}
+
+	private BulkRenderTask(final InflectionString template,
+			final Spliterator<Object[]> rows,
+			final BiConsumer<? super Object[], ? super String> sink,
+			final long pieceSize) {
+		this.template = template;
+		this.rows = rows;
+		this.sink = sink;
+		this.pieceSize = pieceSize;
+	}
+
+	/* Work out how big pieces should be. */
+	private static long pieceSize(final Spliterator<Object[]> rows,
+			final int parallelism) {
+		if (!rows.hasCharacteristics(Spliterator.SIZED))
+			return MIN_PIECE;
+
+		final long perPiece
+				= rows.estimateSize() / ((long) parallelism * PIECES_PER_WORKER);
+
+		return Math.max(MIN_PIECE, perPiece);
+	}
+
+	@Override
+	protected List<List<String>> compute() {
+		if (rows.estimateSize() > pieceSize) {
+			// The split off rows come before the ones that are left.
+			final Spliterator<Object[]> prefix = rows.trySplit();
+
+			if (prefix != null) {
+				final BulkRenderTask before
+						= new BulkRenderTask(template, prefix, sink, pieceSize);
+				final BulkRenderTask after
+						= new BulkRenderTask(template, rows, sink, pieceSize);
+
+				before.fork();
+
+				final List<List<String>> afterResults = after.compute();
+				final List<List<String>> results = before.join();
+
+				if (sink == null)
+					results.addAll(afterResults);
+
+				return results;
+			}
+		}
+
+		return renderPiece();
+	}
+
+	/* Render every row that is left, with one buffer. */
+	private List<List<String>> renderPiece() {
+		final ArticleBuffer buffer = new ArticleBuffer();
+
+		if (sink != null) {
+			rows.forEachRemaining(
+					row -> sink.accept(row, template.inflectRow(row, buffer)));
+
+			return Collections.emptyList();
+		}
+
+		final List<String> results = new ArrayList<>();
+		rows.forEachRemaining(row -> results.add(template.inflectRow(row, buffer)));
+
+		final List<List<String>> pieces = new ArrayList<>();
+		pieces.add(results);
+
+		return pieces;
+	}
+
+	/**
+	 * Join the results of a task back into one list.
+	 *
+	 * @param pieces
+	 *               The results of each piece, in order.
+	 *
+	 * @return The results of every row, in order.
+	 */
+	static List<String> flatten(final List<List<String>> pieces) {
+		int size = 0;
+		for (final List<String> piece : pieces) {
+			size += piece.size();
+		}
+
+		final List<String> results = new ArrayList<>(size);
+		for (final List<String> piece : pieces) {
+			results.addAll(piece);
+		}
+
+		return results;
+	}
+}
@@ -1,5 +1,7 @@
 package bjc.inflexion;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.BiFunction;
@@ -32,6 +34,68 @@ public class CardinalState {
 		 */
 	}
 
+	/**
+	 * A custom scale that applies to a range of numbers.
+	 *
+	 * @author bjculkin
+	 *
+	 */
+	public static final class ScaleRange {
+		/**
+		 * The smallest number in the range.
+		 */
+		public final long min;
+
+		/**
+		 * The largest number in the range.
+		 */
+		public final long max;
+
+		/**
+		 * The function to convert numbers in the range.
+		 */
+		public final Cardinalizer cardinalizer;
+
+		/**
+		 * Create a new scale range.
+		 *
+		 * @param min
+		 *                     The smallest number in the range.
+		 * @param max
+		 *                     The largest number in the range.
+		 * @param cardinalizer
+		 *                     The function to convert numbers in the range.
+		 *
+		 * @throws IllegalArgumentException
+		 *                                  If the range is empty.
+		 */
+		public ScaleRange(long min, long max, Cardinalizer cardinalizer) {
+			if (min > max)
+				throw new IllegalArgumentException(
+						String.format("Scale range %d to %d is empty", min, max));
+
+			this.min = min;
+			this.max = max;
+			this.cardinalizer = cardinalizer;
+		}
+
+		/**
+		 * Check if a number is in this range.
+		 *
+		 * @param number
+		 *               The number to check.
+		 * @return Whether the number is in the range.
+		 */
+		public boolean contains(long number) {
+			return number >= min && number <= max;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("ScaleRange [min=%d, max=%d]", min, max);
+		}
+	}
+
 	/**
 	 * Custom cardinals for numbers.
 	 */
@@ -42,6 +106,13 @@ public class CardinalState {
 	 */
 	public final Map<LongPredicate, Cardinalizer> customScales;
 
+	/**
+	 * Custom functions to apply to ranges of numbers.
+	 *
+	 * If ranges overlap, the one that comes first is used.
+	 */
+	public final List<ScaleRange> customRanges;
+
 	/**
 	 * Create a new set of cardinalization customizations.
 	 *
@@ -52,13 +123,45 @@ public class CardinalState {
 	 */
 	public CardinalState(Map<Long, String> customNumbers,
 			Map<LongPredicate, Cardinalizer> customScales) {
+		this(customNumbers, customScales, Collections.emptyList());
+	}
+
+	/**
+	 * Create a new set of cardinalization customizations.
+	 *
+	 * @param customNumbers
+	 *                      The custom numbers to use.
+	 * @param customScales
+	 *                      The custom scales to use.
+	 * @param customRanges
+	 *                      The custom ranges to use.
+	 */
+	public CardinalState(Map<Long, String> customNumbers,
+			Map<LongPredicate, Cardinalizer> customScales,
+			List<ScaleRange> customRanges) {
 		this.customNumbers = customNumbers;
 		this.customScales = customScales;
+		this.customRanges = customRanges;
+	}
+
+	/**
+	 * Compile these customizations into a form that is faster to look numbers
+	 * up in.
+	 *
+	 * The compiled form is a snapshot, so later changes to these customizations
+	 * won't affect it.
+	 *
+	 * @return The compiled customizations.
+	 */
+	public CardinalState compile() {
+		return new CompiledCardinalState(this);
 	}
 
 	/**
 	 * Handle a custom cardinal number
 	 *
+	 * Custom numbers are checked first, then custom ranges, then custom scales.
+	 *
 	 * @param number
 	 *               The number to handle
 	 * @return The number as a cardinal, or null if we don't handle it.
@@ -68,6 +171,12 @@ public class CardinalState {
 			return customNumbers.get(number);
 		}
 
+		for (ScaleRange range : customRanges) {
+			if (range.contains(number)) {
+				return range.cardinalizer.apply(number, this);
+			}
+		}
+
 		for (Entry<LongPredicate, Cardinalizer> ent : customScales.entrySet()) {
 			if (ent.getKey().test(number)) {
 				return ent.getValue().apply(number, this);
@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+import java.util.function.LongPredicate;
+
+/**
+ * Cardinalization customizations, compiled for fast lookup.
+ *
+ * Custom numbers are kept in a sorted array, and custom ranges are split into
+ * sorted, non-overlapping segments, so both are found with a binary search
+ * instead of a scan. Custom scales can't be indexed, so are still checked one
+ * at a time, but only after everything else.
+ *
+ * @author bjculkin
+ *
+ */
+final class CompiledCardinalState extends CardinalState {
+	/* The custom numbers, sorted, and their cardinals. */
+	private final long[] numberKeys;
+	private final String[] numberValues;
+
+	/* The segments of the custom ranges, sorted and non-overlapping. */
+	private final long[] segmentStarts;
+	private final long[] segmentEnds;
+	private final Cardinalizer[] segmentCardinalizers;
+
+	/* The custom scales, in order. */
+	private final LongPredicate[] scalePredicates;
+	private final Cardinalizer[] scaleCardinalizers;
+
+	/**
+	 * Compile a set of customizations.
+	 *
+	 * @param state
+	 *              The customizations to compile.
+	 */
+	CompiledCardinalState(CardinalState state) {
+		super(Collections.unmodifiableMap(new LinkedHashMap<>(state.customNumbers)),
+				Collections.unmodifiableMap(new LinkedHashMap<>(state.customScales)),
+				Collections.unmodifiableList(new ArrayList<>(state.customRanges)));
+
+		numberKeys = new long[customNumbers.size()];
+		numberValues = new String[customNumbers.size()];
+		{
+			final Long[] keys = customNumbers.keySet().toArray(new Long[0]);
+			Arrays.sort(keys);
+
+			for (int i = 0; i < keys.length; i++) {
+				numberKeys[i] = keys[i];
+				numberValues[i] = customNumbers.get(keys[i]);
+			}
+		}
+
+		final List<long[]> bounds = new ArrayList<>();
+		final List<Cardinalizer> owners = new ArrayList<>();
+		segmentRanges(customRanges, bounds, owners);
+
+		segmentStarts = new long[bounds.size()];
+		segmentEnds = new long[bounds.size()];
+		segmentCardinalizers = owners.toArray(new Cardinalizer[0]);
+		for (int i = 0; i < bounds.size(); i++) {
+			segmentStarts[i] = bounds.get(i)[0];
+			segmentEnds[i] = bounds.get(i)[1];
+		}
+
+		scalePredicates = new LongPredicate[customScales.size()];
+		scaleCardinalizers = new Cardinalizer[customScales.size()];
+		{
+			int i = 0;
+			for (Entry<LongPredicate, Cardinalizer> ent : customScales.entrySet()) {
+				scalePredicates[i] = ent.getKey();
+				scaleCardinalizers[i] = ent.getValue();
+
+				i += 1;
+			}
+		}
+	}
+
+	/*
+	 * Split possibly overlapping ranges into sorted, non-overlapping segments,
+	 * each belonging to the first range that covers it.
+	 */
+	private static void segmentRanges(List<ScaleRange> ranges, List<long[]> bounds,
+			List<Cardinalizer> owners) {
+		// The places where the covering range can change.
+		final TreeSet<Long> cuts = new TreeSet<>();
+		for (ScaleRange range : ranges) {
+			cuts.add(range.min);
+
+			if (range.max != Long.MAX_VALUE)
+				cuts.add(range.max + 1);
+		}
+
+		final Long[] cutArr = cuts.toArray(new Long[0]);
+
+		for (int i = 0; i < cutArr.length; i++) {
+			final long lo = cutArr[i];
+			final long hi = (i + 1 < cutArr.length) ? cutArr[i + 1] - 1 : Long.MAX_VALUE;
+
+			Cardinalizer owner = null;
+			for (ScaleRange range : ranges) {
+				if (range.contains(lo)) {
+					owner = range.cardinalizer;
+
+					break;
+				}
+			}
+
+			if (owner == null)
+				continue;
+
+			final int last = bounds.size() - 1;
+			if (last >= 0 && owners.get(last) == owner && bounds.get(last)[1] == lo - 1) {
+				// Merge with the previous segment
+				bounds.get(last)[1] = hi;
+			} else {
+				bounds.add(new long[] {
+						lo, hi
+				});
+				owners.add(owner);
+			}
+		}
+	}
+
+	@Override
+	public CardinalState compile() {
+		return this;
+	}
+
+	@Override
+	public String handleCustom(long number) {
+		final int numIdx = Arrays.binarySearch(numberKeys, number);
+		if (numIdx >= 0)
+			return numberValues[numIdx];
+
+		int segIdx = Arrays.binarySearch(segmentStarts, number);
+		if (segIdx < 0) {
+			// The segment starting before the number, if there is one.
+			segIdx = -segIdx - 2;
+		}
+
+		if (segIdx >= 0 && number <= segmentEnds[segIdx])
+			return segmentCardinalizers[segIdx].apply(number, this);
+
+		for (int i = 0; i < scalePredicates.length; i++) {
+			if (scalePredicates[i].test(number))
+				return scaleCardinalizers[i].apply(number, this);
+		}
+
+		return null;
+	}
+}
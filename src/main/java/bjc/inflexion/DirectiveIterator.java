@@ -19,12 +19,15 @@ import java.util.Iterator;
 
 /**
  * Performs the parsing of directives from a string.
+ *
+ * Each token is copied out as its own string. {@link InflectionString} uses
+ * the lexer underneath this directly, which doesn't copy them.
  * 
  * @author bjculkin
  */
 public class DirectiveIterator implements Iterator<String> {
-	private String strang;
-	private int pos;
+	private final String strang;
+	private final MarkupLexer lexer;
 
 	/**
 	 * Create a new directive iterator over a string.
@@ -34,95 +37,26 @@ public class DirectiveIterator implements Iterator<String> {
 	 */
 	public DirectiveIterator(String strang) {
 		this.strang = strang;
+		this.lexer = new MarkupLexer(strang, false);
 	}
 
 	@Override
 	public boolean hasNext() {
-		return pos < strang.length();
+		return lexer.end() < strang.length();
 	}
 
+	/*
+	 * @TODO 11/19/18 Ben Culkin :ErrorHandling Do something better than the
+	 * exceptions the lexer throws, if possible.
+	 *
+	 * In the rest of the inflection string code, we use the whole 'list of
+	 * errors/warnings' thing. Is there a way to do something similar here?
+	 */
 	@Override
 	public String next() {
-		if (!hasNext())
+		if (!lexer.next())
 			return null;
 
-		// Directive nesting level
-		int level = 0;
-		int prevPos = pos;
-
-		char prevChar = ' ';
-		boolean parsingVar = false;
-
-		for (; pos < strang.length(); pos++) {
-			// Backslash escapes a character
-			if (prevChar == '\\')
-				continue;
-
-			char c = strang.charAt(pos);
-			switch (c) {
-			case '<':
-				// Stop parsing at the start of a
-				// directive, unless the directive is
-				// the first thing in the string.
-				if (level == 0 && prevPos != pos) {
-					return strang.substring(prevPos, pos);
-				}
-				level += 1;
-				break;
-			case '>':
-				// :ErrorHandling 11/19/18
-				if (level == 0)
-					throw new IllegalArgumentException(
-							"Attempted to close inflection directive without one open at position "
-									+ prevPos + " in string '" + strang
-									+ "', current token is '"
-									+ strang.substring(prevPos, pos) + "'");
-				// Denest a level
-				level = Math.max(0, level - 1);
-				// Stop parsing at the end of a
-				// directive.
-				if (level == 0) {
-					// Advance past the '>'
-					pos += 1;
-
-					return strang.substring(prevPos, pos);
-
-				}
-				break;
-			case '$':
-				// Ignore v-refs when inside a directive
-				if (level > 0)
-					break;
-				// Stop parsing if this isn't at the
-				// start of a string
-				if (prevPos != pos)
-					return strang.substring(prevPos, pos);
-				parsingVar = true;
-				break;
-			case ' ':
-				// If we're parsing a v-ref, this
-				// finishes it.
-				if (parsingVar)
-					return strang.substring(prevPos, pos);
-				break;
-			default:
-				// Do nothing for ordinary characters
-				break;
-			}
-		}
-
-		/*
-		 * @TODO 11/19/18 Ben Culkin :ErrorHandling Do something better than this
-		 * exception, if possible.
-		 *
-		 * In the rest of the inflection string code, we use the whole 'list of
-		 * errors/warnings' thing. Is there a way to do something similar here?
-		 */
-		if (level > 0)
-			throw new IllegalArgumentException(
-					"Unclosed inflection directive, starting at position " + prevPos
-							+ " in string '" + strang + "'");
-
-		return strang.substring(prevPos, pos);
+		return strang.substring(lexer.start(), lexer.end());
 	}
-}
\ No newline at end of file
+}
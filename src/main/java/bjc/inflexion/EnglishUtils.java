@@ -13,60 +13,107 @@
  */
 package bjc.inflexion;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * General utils for dealing with english.
  *
  * @author student
  */
 public class EnglishUtils {
+	/* First letters of single letters that take 'an'. */
+	private static final String LETTER_AN = "aedhilmnorsx";
+
+	/* Letters that can start an abbreviation taking 'an'. */
+	private static final String ABBREV_AN = "FHLMNRSX";
+
+	/* Words that start with these take 'an'. */
+	private static final String[] EXPLICIT_AN = {
+			"euler", "heir", "honest", "hono"
+	};
+
+	/* Letters that start 'u' words pronounced 'yoo' (ubiquitous, unicorn). */
+	private static final String U_CONSONANT = "bcfhjkqrst";
+
+	/*
+	 * What follows a 'y' at the start of english words beginning with
+	 * 'y' and a consonant.
+	 */
+	private static final String[] INITIAL_Y_AN = {
+			"bl", "bo", "br", "cle", "cla", "fere", "gg", "pi", "po", "ps", "rou", "tt"
+	};
+
 	/**
 	 * Pick an indefinite article ('a' or 'an') for a phrase.
-	 * 
+	 *
 	 * @param phrase
 	 *               The phrase to pick an article for.
 	 * @return The article to use for the phrase.
 	 */
 	public static String pickIndefinite(String phrase) {
-		Pattern pattern;
-		Matcher matcher;
-		String word, lowercaseWord;
+		return pickIndefinite(phrase, 0, phrase.length());
+	}
 
-		if (phrase.length() == 0) {
+	/**
+	 * Pick an indefinite article ('a' or 'an') for part of a sequence of
+	 * characters.
+	 *
+	 * The article is picked based on the first word of the phrase, without
+	 * copying any of it.
+	 *
+	 * @param phrase
+	 *               The characters containing the phrase.
+	 * @param start
+	 *               The index the phrase starts at.
+	 * @param end
+	 *               The index the phrase ends before.
+	 * @return The article to use for the phrase.
+	 */
+	public static String pickIndefinite(CharSequence phrase, int start, int end) {
+		if (start == end) {
 			return "a";
 		}
 
 		// Getting the first word
-		pattern = Pattern.compile("(\\w+)\\s*.*");
-		matcher = pattern.matcher(phrase);
-		if (matcher.matches() == true) {
-			word = matcher.group(1);
-		} else {
+		int wordEnd = start;
+		while (wordEnd < end && isWordChar(phrase.charAt(wordEnd))) {
+			wordEnd += 1;
+		}
+
+		if (wordEnd == start) {
 			return "an";
 		}
 
-		lowercaseWord = word.toLowerCase();
+		// Anything after the word and its trailing space must stay on one line.
+		int rest = wordEnd;
+		while (rest < end && isSpace(phrase.charAt(rest))) {
+			rest += 1;
+		}
+
+		for (int i = rest; i < end; i++) {
+			if (isLineTerminator(phrase.charAt(i))) {
+				return "an";
+			}
+		}
+
+		final int length = wordEnd - start;
 
 		// Specific start of words that should be preceded by 'an'
-		String[] altCases = {
-				"euler", "heir", "honest", "hono"
-		};
-		for (String altCase : altCases) {
-			if (lowercaseWord.startsWith(altCase) == true) {
+		for (String altCase : EXPLICIT_AN) {
+			if (startsWith(phrase, start, wordEnd, altCase)) {
 				return "an";
 			}
 		}
 
-		if (lowercaseWord.startsWith("hour") == true
-				&& lowercaseWord.startsWith("houri") == false) {
+		if (startsWith(phrase, start, wordEnd, "hour")
+				&& !startsWith(phrase, start, wordEnd, "houri")) {
 			return "an";
 		}
 
+		final char first = phrase.charAt(start);
+		final char lowerFirst = toLower(first);
+
 		// Single letter word which should be preceded by 'an'
-		if (lowercaseWord.length() == 1) {
-			if ("aedhilmnorsx".indexOf(lowercaseWord) >= 0) {
+		if (length == 1) {
+			if (LETTER_AN.indexOf(lowerFirst) >= 0) {
 				return "an";
 			}
 
@@ -74,27 +121,53 @@ public class EnglishUtils {
 		}
 
 		// Capital words which should likely be preceded by 'an'
-		if (word.matches(
-				"(?!FJO|[HLMNS]Y.|RY[EO]|SQU|(F[LR]?|[HL]|MN?|N|RH?|S[CHKLMNPTVW]?|X(YL)?)[AEIOU])[FHLMNRSX][A-Z]")) {
-			return "an";
+		if (length == 2 && ABBREV_AN.indexOf(first) >= 0) {
+			final char second = phrase.charAt(start + 1);
+
+			if (second >= 'A' && second <= 'Z' && "AEIOU".indexOf(second) < 0) {
+				return "an";
+			}
 		}
 
 		// Special cases where a word that begins with a vowel should be preceded by 'a'
-		String[] regexes = {
-				"^e[uw]", "^onc?e\\b", "^uni([^nmd]|mo)", "^u[bcfhjkqrst][aeiou]"
-		};
+		if (startsWith(phrase, start, wordEnd, "eu")
+				|| startsWith(phrase, start, wordEnd, "ew")) {
+			return "a";
+		}
+
+		if ((length == 3 && startsWith(phrase, start, wordEnd, "one"))
+				|| (length == 4 && startsWith(phrase, start, wordEnd, "once"))) {
+			return "a";
+		}
+
+		if (length >= 4 && startsWith(phrase, start, wordEnd, "uni")) {
+			final char fourth = toLower(phrase.charAt(start + 3));
 
-		for (String regex : regexes) {
-			if (lowercaseWord.matches(regex + ".*") == true) {
+			if (fourth != 'n' && fourth != 'm' && fourth != 'd') {
+				return "a";
+			} else if (startsWith(phrase, start, wordEnd, "unimo")) {
 				return "a";
 			}
 		}
 
-		// Special capital words (UK, UN)
-		if (word.matches("^U[NK][AIEO].*") == true) {
+		if (length >= 3 && lowerFirst == 'u'
+				&& U_CONSONANT.indexOf(toLower(phrase.charAt(start + 1))) >= 0
+				&& "aeiou".indexOf(toLower(phrase.charAt(start + 2))) >= 0) {
 			return "a";
-		} else if (word.equals(word.toUpperCase())) {
-			if ("aedhilmnorsx".indexOf(lowercaseWord.substring(0, 1)) >= 0) {
+		}
+
+		// Special capital words (UK, UN)
+		if (length >= 3 && first == 'U') {
+			final char second = phrase.charAt(start + 1);
+			final char third = phrase.charAt(start + 2);
+
+			if ((second == 'N' || second == 'K') && "AIEO".indexOf(third) >= 0) {
+				return "a";
+			}
+		}
+
+		if (isUpperCase(phrase, start, wordEnd)) {
+			if (LETTER_AN.indexOf(lowerFirst) >= 0) {
 				return "an";
 			}
 
@@ -102,15 +175,75 @@ public class EnglishUtils {
 		}
 
 		// Basic method of words that begin with a vowel being preceded by 'an'
-		if ("aeiou".indexOf(lowercaseWord.substring(0, 1)) >= 0) {
+		if ("aeiou".indexOf(lowerFirst) >= 0) {
 			return "an";
 		}
 
 		// Instances where y followed by specific letters is preceded by 'an'
-		if (lowercaseWord.matches("^y(b[lor]|cl[ea]|fere|gg|p[ios]|rou|tt).*")) {
-			return "an";
+		if (lowerFirst == 'y') {
+			for (String follow : INITIAL_Y_AN) {
+				if (startsWith(phrase, start + 1, wordEnd, follow)) {
+					return "an";
+				}
+			}
 		}
 
 		return "a";
 	}
+
+	/* Check if a word starts with a lowercase prefix, ignoring its case. */
+	private static boolean startsWith(CharSequence word, int start, int end,
+			String prefix) {
+		if (end - start < prefix.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < prefix.length(); i++) {
+			if (toLower(word.charAt(start + i)) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/* Check if a word has no lowercase letters. */
+	private static boolean isUpperCase(CharSequence word, int start, int end) {
+		for (int i = start; i < end; i++) {
+			final char ch = word.charAt(i);
+
+			if (ch >= 'a' && ch <= 'z') {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/* Lowercase a word character. */
+	private static char toLower(char ch) {
+		if (ch >= 'A' && ch <= 'Z') {
+			return (char) (ch + ('a' - 'A'));
+		}
+
+		return ch;
+	}
+
+	/* Check for a regex word character (\w). */
+	private static boolean isWordChar(char ch) {
+		return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')
+				|| (ch >= '0' && ch <= '9') || ch == '_';
+	}
+
+	/* Check for a regex space character (\s). */
+	private static boolean isSpace(char ch) {
+		return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f'
+				|| ch == '\r';
+	}
+
+	/* Check for a character that a regex '.' doesn't match. */
+	private static boolean isLineTerminator(char ch) {
+		return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028'
+				|| ch == '\u2029';
+	}
 }
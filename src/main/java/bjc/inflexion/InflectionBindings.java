@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.util.Arrays;
+
+/**
+ * Reusable values for the variables of an inflection string.
+ *
+ * Each variable has a slot, which can be looked up once with
+ * {@link #slotOf(String)} and then set as often as needed, without looking
+ * anything up by name. Bindings only work with the string they were made for,
+ * and aren't safe to share between threads.
+ *
+ * @author bjculkin
+ *
+ * @see InflectionString#newBindings()
+ */
+public final class InflectionBindings {
+	/* The slots of the string these are for. */
+	final VariableSlots slots;
+
+	/* The value of each slot. */
+	final Object[] values;
+
+	/**
+	 * Create a new set of empty bindings.
+	 *
+	 * @param slots
+	 *              The slots of the string these are for.
+	 */
+	InflectionBindings(VariableSlots slots) {
+		this.slots = slots;
+		this.values = slots.newValues();
+	}
+
+	/**
+	 * Get the slot for a variable.
+	 *
+	 * @param name
+	 *             The name of the variable, without the '$'.
+	 * @return The slot for the variable, or -1 if the string doesn't use it.
+	 */
+	public int slotOf(String name) {
+		return slots.slotOf(name);
+	}
+
+	/**
+	 * Set the value of a slot.
+	 *
+	 * @param slot
+	 *              The slot to set.
+	 * @param value
+	 *              The value to set it to.
+	 * @return These bindings.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *                                   If there is no such slot.
+	 */
+	public InflectionBindings set(int slot, Object value) {
+		values[slot] = value;
+
+		return this;
+	}
+
+	/**
+	 * Set the value of a variable.
+	 *
+	 * @param name
+	 *              The name of the variable, without the '$'.
+	 * @param value
+	 *              The value to set it to.
+	 * @return These bindings.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If the string doesn't use the variable.
+	 */
+	public InflectionBindings set(String name, Object value) {
+		final int slot = slotOf(name);
+
+		if (slot < 0)
+			throw new IllegalArgumentException("Unknown variable " + name);
+
+		return set(slot, value);
+	}
+
+	/**
+	 * Unbind every variable.
+	 *
+	 * @return These bindings.
+	 */
+	public InflectionBindings clear() {
+		Arrays.fill(values, VariableSlots.UNBOUND);
+
+		return this;
+	}
+}
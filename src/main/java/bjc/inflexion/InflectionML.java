@@ -14,22 +14,25 @@
 package bjc.inflexion;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import bjc.inflexion.nouns.InflectionException;
-import bjc.inflexion.nouns.Noun;
+import bjc.inflexion.nouns.NounForms;
 import bjc.inflexion.nouns.Nouns;
-import bjc.inflexion.nouns.Prepositions;
 
 /*
  * @TODO 10/11/17 Ben Culkin :InflectionML
@@ -48,32 +51,12 @@ public class InflectionML {
 	/* The options implied by the E option. */
 	private static final List<String> ESUB_OPT = Arrays.asList("a", "s", "w");
 
-	/* The regex that marks an inflection form. */
-	private static Pattern FORM_MARKER
-			= Pattern.compile("<(?<command>[#N])(?<options>[^:]*):(?<text>[^>]*)>");
+	/* The default amount of markup to stream at once. */
+	private static final int STREAM_BUFFER_SIZE = 8192;
 
-	private static Pattern AN_MARKER = Pattern.compile("\\{an(\\d+)\\}");
-
-	/* The database of nouns. */
-	private static Nouns nounDB;
-
-	/* Load DBs from files. */
-	static {
-		final Prepositions prepositionDB = new Prepositions();
-		try (InputStream strim
-				= InflectionML.class.getResourceAsStream("/prepositions.txt")) {
-			prepositionDB.loadFromStream(strim);
-		} catch (IOException ioex) {
-			ioex.printStackTrace();
-		}
-
-		nounDB = new Nouns(prepositionDB);
-		try (InputStream strim = InflectionML.class.getResourceAsStream("/nouns.txt")) {
-			nounDB.loadFromStream(strim);
-		} catch (IOException ioex) {
-			ioex.printStackTrace();
-		}
-	}
+	/* Options that turn on case folding. */
+	private static final Pattern CASE_FOLD_OPTIONS
+			= Pattern.compile("(?:[a-z]*[A-Z]+[a-z])+");
 
 	/**
 	 * Apply inflection to marked forms in the string.
@@ -84,35 +67,165 @@ public class InflectionML {
 	 * @return The inflected string.
 	 */
 	public static String inflect(String form) {
-		Matcher formMatcher = FORM_MARKER.matcher(form);
-		StringBuffer formBuffer = new StringBuffer();
+		return inflect(Inflector.getDefault(), form);
+	}
+
+	/**
+	 * Apply inflection to marked forms in the string.
+	 *
+	 * The string is only parsed the first time it is inflected, if the inflector
+	 * caches templates.
+	 *
+	 * @param inflector
+	 *                  The inflector to use.
+	 * @param form
+	 *                  The string to inflect.
+	 *
+	 * @return The inflected string.
+	 */
+	public static String inflect(Inflector inflector, String form) {
+		return render(inflector, inflector.compileMarkup(form));
+	}
+
+	/**
+	 * Apply inflection to marked forms read from a reader.
+	 *
+	 * @param in
+	 *            The reader to read markup from.
+	 * @param out
+	 *            The writer to write the inflected text to.
+	 *
+	 * @throws IOException
+	 *                     If the reader or writer fail.
+	 *
+	 * @see #inflect(Inflector, Reader, Writer, int)
+	 */
+	public static void inflect(Reader in, Writer out) throws IOException {
+		inflect(Inflector.getDefault(), in, out);
+	}
+
+	/**
+	 * Apply inflection to marked forms read from a reader.
+	 *
+	 * @param inflector
+	 *                  The inflector to use.
+	 * @param in
+	 *                  The reader to read markup from.
+	 * @param out
+	 *                  The writer to write the inflected text to.
+	 *
+	 * @throws IOException
+	 *                     If the reader or writer fail.
+	 *
+	 * @see #inflect(Inflector, Reader, Writer, int)
+	 */
+	public static void inflect(Inflector inflector, Reader in, Writer out)
+			throws IOException {
+		inflect(inflector, in, out, STREAM_BUFFER_SIZE);
+	}
 
-		int curCount = 1;
+	/**
+	 * Apply inflection to marked forms read from a reader.
+	 *
+	 * The markup is read and inflected a buffer at a time, and inflected text
+	 * is written out as soon as it is finished, so documents of any length can
+	 * be inflected in a fixed amount of memory. The output is the same as
+	 * inflecting the whole document as one string, as long as no directive is
+	 * longer than the buffer, and no article is separated from its noun by more
+	 * than a buffer of text.
+	 *
+	 * Neither the reader nor the writer are closed, but the writer is flushed.
+	 *
+	 * @param inflector
+	 *                   The inflector to use.
+	 * @param in
+	 *                   The reader to read markup from.
+	 * @param out
+	 *                   The writer to write the inflected text to.
+	 * @param bufferSize
+	 *                   The number of characters to buffer.
+	 *
+	 * @throws IOException
+	 *                                  If the reader or writer fail.
+	 * @throws InflectionException
+	 *                                  If the markup is invalid, or doesn't
+	 *                                  fit in the buffer.
+	 * @throws IllegalArgumentException
+	 *                                  If the buffer size isn't positive.
+	 */
+	public static void inflect(Inflector inflector, Reader in, Writer out,
+			int bufferSize) throws IOException {
+		new MarkupStreamer(inflector, bufferSize).inflect(in, out);
+	}
 
-		boolean inflectSingular = true;
+	/**
+	 * Apply inflection to marked forms read from a channel.
+	 *
+	 * @param inflector
+	 *                  The inflector to use.
+	 * @param in
+	 *                  The channel to read markup from.
+	 * @param out
+	 *                  The channel to write the inflected text to.
+	 * @param charset
+	 *                  The charset both channels use.
+	 *
+	 * @throws IOException
+	 *                     If either channel fails.
+	 *
+	 * @see #inflect(Inflector, Reader, Writer, int)
+	 */
+	public static void inflect(Inflector inflector, ReadableByteChannel in,
+			WritableByteChannel out, Charset charset) throws IOException {
+		inflect(inflector, Channels.newReader(in, charset),
+				Channels.newWriter(out, charset));
+	}
 
-		int anCount = 0;
-		List<String> anVals = new ArrayList<>();
+	/**
+	 * Parse the marked forms in a string into a list of directives.
+	 *
+	 * The directives use the same options as those for {@link InflectionString},
+	 * but markup options are mapped onto them the way this class has always
+	 * interpreted them.
+	 *
+	 * @param form
+	 *             The string to parse.
+	 *
+	 * @return The directives for the string.
+	 *
+	 * @throws InflectionException
+	 *                             If a count setter doesn't have a number as its
+	 *                             parameter.
+	 */
+	static List<InflectionDirective> compile(String form) {
+		final List<InflectionDirective> dirs = new ArrayList<>();
 
-		boolean pendingAN = false;
+		final MarkupLexer lexer = new MarkupLexer(form, true);
+
+		while (lexer.next()) {
+			if (lexer.kind() == MarkupLexer.TokenKind.LITERAL) {
+				dirs.add(InflectionDirective
+						.literal(form.substring(lexer.start(), lexer.end())));
+
+				continue;
+			}
 
-		while (formMatcher.find()) {
-			final String command = formMatcher.group("command");
-			final String options = formMatcher.group("options");
-			final String text = formMatcher.group("text");
+			final char command = lexer.name();
+			final int optStart = lexer.optionsStart();
+			final int optEnd = lexer.optionsEnd();
+			final String text = form.substring(lexer.bodyStart(), lexer.bodyEnd());
 
 			final Set<String> optionSet = new HashSet<>();
 
-			char ch = command.charAt(0);
-			boolean doCaseFold = Character.isUpperCase(ch);
+			boolean doCaseFold = Character.isUpperCase(command);
 
 			final Map<Character, Integer> numOpts = new HashMap<>();
 			numOpts.put('w', 11);
 			numOpts.put('o', Integer.MAX_VALUE);
 			numOpts.put('f', 0);
 
-			if (!options.equals("")) {
-				if (options.matches("(?:[a-z]*[A-Z]+[a-z])+")) {
+			if (optStart < optEnd) {
+				if (CASE_FOLD_OPTIONS.matcher(form).region(optStart, optEnd).matches()) {
 					doCaseFold = true;
 				}
 
@@ -120,8 +233,8 @@ public class InflectionML {
 
 				StringBuilder currNum = new StringBuilder();
 
-				for (int i = 0; i < options.length(); i++) {
-					char ci = options.charAt(i);
+				for (int i = optStart; i < optEnd; i++) {
+					char ci = form.charAt(i);
 
 					if (Character.isDigit(ci)) {
 						currNum.append(ci);
@@ -142,15 +255,10 @@ public class InflectionML {
 					// where having options with a capitalized letter followed by more
 					// than 1 lowercase letter gets ignored.
 					if (doCaseFold) {
-						if (Character.isUpperCase(ci)) {
-							System.err.printf("Case-folding '%c'\n", ci);
-
-							opt = opt.toLowerCase();
-						} else {
-
-							System.err.printf("Ignoring '%c' due to case folding\n", ci);
+						if (!Character.isUpperCase(ci))
 							continue;
-						}
+
+						opt = opt.toLowerCase();
 					}
 
 					prevOption = ci;
@@ -165,115 +273,115 @@ public class InflectionML {
 			}
 
 			switch (command) {
-			case "#":
-				/*
-				 * @NOTE These should maybe be moved into their own function. This will
-				 * also allow the use of custom inflection forms.
-				 */
+			case '#':
+				if (optionSet.contains("e")) {
+					optionSet.remove("e");
+					optionSet.addAll(ESUB_OPT);
+				}
+
+				final InflectionDirective numDir;
+
 				try {
-					if (optionSet.contains("e")) {
-						optionSet.remove("e");
-						optionSet.addAll(ESUB_OPT);
-					}
+					numDir = InflectionDirective.numeric(Integer.parseInt(text));
+				} catch (final NumberFormatException nfex) {
+					throw new InflectionException(
+							"Count setter must take a number as a parameter", nfex);
+				}
 
-					curCount = Integer.parseInt(text);
+				// Keep the count as it was written, for printing.
+				numDir.litString = text;
 
-					if (optionSet.contains("i")) {
-						curCount += 1;
-					}
+				final NumericOptions numOptions = (NumericOptions) numDir.opts;
 
-					if (curCount != 1) {
-						if (curCount == 0 && optionSet.contains("s")) {
-							inflectSingular = true;
-						} else {
-							inflectSingular = false;
-						}
-					} else {
-						inflectSingular = true;
-					}
+				// 'i' always increments by one here.
+				numOptions.increment = optionSet.contains("i");
 
-					String rep = text;
+				// 's' also prints zero as 'no'.
+				numOptions.singular = optionSet.contains("s");
+				numOptions.zeroNo = optionSet.contains("n") || optionSet.contains("s");
 
-					if (optionSet.contains("n")) {
-						if (curCount == 0) {
-							rep = "no";
-						}
-					}
+				numOptions.article = optionSet.contains("a");
+				numOptions.nonPrint = optionSet.contains("d");
 
-					if (optionSet.contains("s")) {
-						if (curCount == 0) {
-							rep = "no";
-						}
-					}
+				numOptions.cardinal = optionSet.contains("w");
+				numOptions.cardinalThresh = numOpts.get('w');
 
-					if (optionSet.contains("a")) {
-						if (curCount == 1) {
-							anCount += 1;
-							rep = "{an" + anCount + "}";
+				numOptions.ordinal = optionSet.contains("o");
+				numOptions.ordinalThresh = numOpts.get('o');
 
-							pendingAN = true;
-						}
-					}
+				numOptions.summarize = optionSet.contains("f");
+				numOptions.atEnd = numOpts.get('f') != 0;
 
-					/* Break out of switch. */
-					if (optionSet.contains("d")) {
-						formMatcher.appendReplacement(formBuffer, "");
-						break;
-					}
+				dirs.add(numDir);
+				break;
+			case 'n':
+			case 'N':
+				final InflectionDirective nounDir = InflectionDirective.noun(text);
 
-					boolean shouldOverride = true;
-					if (rep.equals("no") || rep.matches("\\{an\\d+\\}")) {
-						shouldOverride = false;
-					}
+				final NounOptions nounOptions = (NounOptions) nounDir.opts;
+				nounOptions.plural = optionSet.contains("p");
+				nounOptions.classical = optionSet.contains("c");
 
-					if (optionSet.contains("w") && shouldOverride) {
-						rep = NumberUtils.toCardinal(curCount, numOpts.get('w'));
+				dirs.add(nounDir);
+				break;
+			default:
+				final String msg = String.format("Unknown command '%s'", command);
 
-					}
+				throw new InflectionException(msg);
+			}
+		}
 
-					if (optionSet.contains("o") && shouldOverride) {
-						if (optionSet.contains("w")) {
-							if (curCount < numOpts.get('w'))
-								rep = NumberUtils.toOrdinal(curCount, numOpts.get('o'),
-										true);
-							else
-								rep = NumberUtils.toOrdinal(curCount, numOpts.get('o'),
-										false);
-						} else {
-							rep = NumberUtils.toOrdinal(curCount, numOpts.get('o'),
-									false);
-						}
-
-						if (curCount < numOpts.get('o')) {
-							// Respect english usage of ordinals
-							curCount = 1;
-							inflectSingular = true;
-						}
-					}
+		return Collections.unmodifiableList(dirs);
+	}
 
-					if (optionSet.contains("f") && shouldOverride) {
-						rep = NumberUtils.summarizeNumber(curCount,
-								numOpts.get('f') != 0);
-					}
+	/* Render a list of directives produced by compile. */
+	private static String render(Inflector inflector,
+			List<InflectionDirective> dirs) {
+		final ArticleBuffer formBuffer = new ArticleBuffer();
 
-					numOpts.put('o', Integer.MAX_VALUE);
-					numOpts.put('w', 11);
-					numOpts.put('f', 0);
+		render(inflector.getNouns(), dirs, formBuffer, true);
 
-					formMatcher.appendReplacement(formBuffer, rep);
-				} catch (final NumberFormatException nfex) {
-					throw new InflectionException(
-							"Count setter must take a number as a parameter", nfex);
-				}
+		if (formBuffer.hasOpenArticle())
+			throw new InflectionException("Article isn't followed by a noun");
+
+		return formBuffer.toString();
+	}
+
+	/**
+	 * Render a list of directives produced by compile into a buffer.
+	 *
+	 * @param nounDB
+	 *                        The nouns to inflect with.
+	 * @param dirs
+	 *                        The directives to render.
+	 * @param formBuffer
+	 *                        The buffer to render into. Articles can be left
+	 *                        open, for a later noun to fill.
+	 * @param inflectSingular
+	 *                        Whether nouns start out singular.
+	 *
+	 * @return Whether nouns after the directives should be singular.
+	 */
+	static boolean render(Nouns nounDB, List<InflectionDirective> dirs,
+			ArticleBuffer formBuffer, boolean inflectSingular) {
+		for (InflectionDirective dir : dirs) {
+			switch (dir.type) {
+			case LITERAL:
+				formBuffer.append(dir.litString);
 				break;
-			case "n":
-			case "N":
-				final Noun noun = nounDB.getNoun(text);
+			case NUMERIC:
+				inflectSingular = InflectionString.appendNumber(formBuffer, dir.numNumber,
+						dir.litString, (NumericOptions) dir.opts);
+				break;
+			case NOUN:
+				final NounOptions nounOpts = (NounOptions) dir.opts;
+
+				final NounForms noun = nounDB.getForms(dir.litString);
 
 				String nounVal;
 
-				if (optionSet.contains("p") || !inflectSingular) {
-					if (optionSet.contains("c")) {
+				if (nounOpts.plural || !inflectSingular) {
+					if (nounOpts.classical) {
 						nounVal = noun.classicalPlural();
 					} else {
 						nounVal = noun.plural();
@@ -282,40 +390,28 @@ public class InflectionML {
 					nounVal = noun.singular();
 				}
 
-				formMatcher.appendReplacement(formBuffer, nounVal);
-				if (pendingAN) {
-					anVals.add(EnglishUtils.pickIndefinite(nounVal));
-
-					pendingAN = false;
+				if (formBuffer.hasOpenArticle()) {
+					formBuffer.fillArticles(EnglishUtils.pickIndefinite(nounVal));
 				}
+				formBuffer.append(nounVal);
 
 				break;
 			default:
-				final String msg = String.format("Unknown command '%s'", command);
+				final String msg = String.format("Unknown directive type '%s'", dir.type);
 
 				throw new InflectionException(msg);
 			}
 		}
 
-		formMatcher.appendTail(formBuffer);
-
-		String res = formBuffer.toString();
-		formBuffer = new StringBuffer();
-
-		Matcher anMat = AN_MARKER.matcher(res);
-
-		Iterator<String> anItr = anVals.iterator();
-		while (anMat.find()) {
-			anMat.appendReplacement(formBuffer, anItr.next());
-		}
-		anMat.appendTail(formBuffer);
-
-		return formBuffer.toString();
+		return inflectSingular;
 	}
 
 	/**
 	 * Alias method to format a string, then inflect it.
 	 *
+	 * Formatted strings are rarely inflected more than once, so they aren't put
+	 * in the template cache.
+	 *
 	 * @param format
 	 *                The combined format/inflection string.
 	 *
@@ -325,6 +421,6 @@ public class InflectionML {
 	 * @return The string, formatted &amp; inflected.
 	 */
 	public static String iprintf(final String format, final Object... objects) {
-		return inflect(String.format(format, objects));
+		return render(Inflector.getDefault(), compile(String.format(format, objects)));
 	}
 }
@@ -0,0 +1,517 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import bjc.inflexion.nouns.NounForms;
+import bjc.inflexion.nouns.Nouns;
+
+/**
+ * An inflection string that has been specialized for rendering.
+ *
+ * Instead of going through the directives and their options every time it is
+ * rendered, each directive is turned into a step that only does what its
+ * options ask for, with the options read once, up front. Variables are read
+ * from the slots they were given when the string was compiled, so rendering is
+ * just running each step in turn.
+ *
+ * Runs of text, variables and literal counts without articles are fused into a
+ * single step. Steps are run by switching on their kind rather than through a
+ * virtual call, so every call to a step only ever sees one class and can be
+ * inlined, however many kinds of step the strings in use have between them.
+ *
+ * Renderers are immutable, and can be used from many threads at once.
+ *
+ * @author bjculkin
+ *
+ * @see InflectionString#specialize()
+ */
+public final class InflectionRenderer {
+	/* The state of a single render. */
+	private static final class State {
+		final ArticleBuffer out = new ArticleBuffer();
+
+		/* The values of the variables, by slot. */
+		final Object[] values;
+
+		/* The forms of the literal nouns. */
+		final InflectionString.LiteralNoun[] nounForms;
+
+		/* Whether nouns should be singular. */
+		boolean singular = false;
+
+		State(final Object[] values, final InflectionString.LiteralNoun[] nounForms) {
+			this.values = values;
+			this.nounForms = nounForms;
+		}
+	}
+
+	/* The kinds of step. */
+	private static final int TEXT = 0;
+	private static final int LITERAL_COUNT = 1;
+	private static final int COUNT = 2;
+	private static final int OPTION_COUNT = 3;
+	private static final int LITERAL_NOUN = 4;
+	private static final int NOUN = 5;
+
+	/* A single step of rendering. */
+	private abstract static class Step {
+		/* The kind of step, which says which class it is. */
+		final int kind;
+
+		Step(final int kind) {
+			this.kind = kind;
+		}
+	}
+
+	/*
+	 * Print a run of text, variables and counts that were rendered when the
+	 * string was made.
+	 */
+	private static final class TextStep extends Step {
+		/* The text of each part, or the name of its variable. */
+		private final String[] parts;
+		/* The slot of each variable part, or -1 for text. */
+		private final int[] slots;
+
+		/* What the run sets the count to be, if it has a literal count. */
+		private final boolean hasCount;
+		private final boolean singular;
+
+		TextStep(final List<String> parts, final List<Integer> slots,
+				final InflectionString.LiteralNumber lastCount) {
+			super(TEXT);
+
+			this.parts = parts.toArray(new String[0]);
+			this.slots = new int[this.parts.length];
+			for (int i = 0; i < this.slots.length; i++) {
+				this.slots[i] = slots.get(i);
+			}
+
+			this.hasCount = lastCount != null;
+			this.singular = hasCount && lastCount.singular;
+		}
+
+		void render(final State state) {
+			for (int i = 0; i < parts.length; i++) {
+				final int slot = slots[i];
+
+				if (slot == -1) {
+					state.out.append(parts[i]);
+				} else {
+					if (!VariableSlots.isBound(state.values, slot))
+						throw new IllegalArgumentException("Unbound variable " + parts[i]);
+
+					state.out.append(String.valueOf(state.values[slot]));
+				}
+			}
+
+			// Nothing in the run reads the count, so it only has to be set once.
+			if (hasCount)
+				state.singular = singular;
+		}
+	}
+
+	/*
+	 * Leave room for the article of a count that was rendered when the string
+	 * was made. Literal counts without articles are just text.
+	 */
+	private static final class LiteralCountStep extends Step {
+		private final boolean singular;
+
+		LiteralCountStep(final InflectionString.LiteralNumber number) {
+			super(LITERAL_COUNT);
+
+			this.singular = number.singular;
+		}
+
+		void render(final State state) {
+			state.singular = singular;
+
+			state.out.reserveArticle();
+		}
+	}
+
+	/* Set the count and print it, for counts without any options. */
+	private static class CountStep extends Step {
+		/* The variable holding the count. */
+		final String varName;
+		final int slot;
+
+		CountStep(final InflectionDirective dir, final int slot) {
+			this(COUNT, dir, slot);
+		}
+
+		CountStep(final int kind, final InflectionDirective dir, final int slot) {
+			super(kind);
+
+			this.varName = dir.litString;
+			this.slot = slot;
+		}
+
+		/* Get the count this step starts from. */
+		final int count(final State state) {
+			final Object val = VariableSlots.get(state.values, slot);
+
+			if (!(val instanceof Integer))
+				throw new IllegalArgumentException(
+						"Non-numeric variable " + varName + " passed to # directive");
+
+			return (Integer) val;
+		}
+
+		void render(final State state) {
+			final int count = count(state);
+
+			state.singular = count == 1;
+
+			state.out.append(Integer.toString(count));
+		}
+	}
+
+	/* Set the count, and print it the way its options say to. */
+	private static final class OptionCountStep extends CountStep {
+		private final NumericOptions opts;
+
+		OptionCountStep(final InflectionDirective dir, final int slot,
+				final NumericOptions opts) {
+			super(OPTION_COUNT, dir, slot);
+
+			this.opts = opts;
+		}
+
+		@Override
+		void render(final State state) {
+			state.singular = InflectionString.appendNumber(state.out, count(state), opts);
+		}
+	}
+
+	/* Print a literal noun, picking the form for the current count. */
+	private static final class LiteralNounStep extends Step {
+		/* The index of the noun's forms. */
+		private final int index;
+		private final boolean plural;
+
+		LiteralNounStep(final int index, final NounOptions opts) {
+			super(LITERAL_NOUN);
+
+			this.index = index;
+			this.plural = opts.plural;
+		}
+
+		void render(final State state) {
+			final InflectionString.LiteralNoun noun = state.nounForms[index];
+
+			if (plural || !state.singular) {
+				if (state.out.hasOpenArticle())
+					state.out.fillArticles(noun.pluralArticle);
+
+				state.out.append(noun.plural);
+			} else {
+				if (state.out.hasOpenArticle())
+					state.out.fillArticles(noun.singularArticle);
+
+				state.out.append(noun.singular);
+			}
+		}
+	}
+
+	/* Print a noun from a variable, inflected for the current count. */
+	private static final class NounStep extends Step {
+		private final Nouns nouns;
+
+		/* The variable holding the noun. */
+		private final String noun;
+		private final int slot;
+
+		private final boolean plural;
+		private final boolean classical;
+
+		NounStep(final Nouns nouns, final InflectionDirective dir, final int slot,
+				final NounOptions opts) {
+			super(NOUN);
+
+			this.nouns = nouns;
+			this.noun = dir.litString;
+			this.slot = slot;
+			this.plural = opts.plural;
+			this.classical = opts.classical;
+		}
+
+		void render(final State state) {
+			final Object val = VariableSlots.get(state.values, slot);
+
+			if (!(val instanceof String))
+				throw new IllegalArgumentException(
+						"Non-string variable " + noun + " passed to N directive");
+
+			final NounForms forms = nouns.getForms((String) val);
+
+			final String nounVal;
+
+			if (plural || !state.singular) {
+				nounVal = classical ? forms.classicalPlural() : forms.plural();
+			} else {
+				nounVal = forms.singular();
+			}
+
+			if (state.out.hasOpenArticle()) {
+				state.out.fillArticles(EnglishUtils.pickIndefinite(nounVal));
+			}
+
+			state.out.append(nounVal);
+		}
+	}
+
+	/* The steps to render. */
+	private final Step[] steps;
+
+	/* The string the renderer was made from. */
+	private final InflectionString source;
+
+	/* The slots the variables are stored in. */
+	private final VariableSlots slots;
+
+	/* The string the renderer was made from. */
+	private final String rawString;
+
+	/**
+	 * Create a new renderer.
+	 *
+	 * @param inflector
+	 *                  The inflector to use.
+	 * @param source
+	 *                  The string the renderer is for, which keeps the forms
+	 *                  of its literal nouns up to date.
+	 * @param dirs
+	 *                  The directives to render. Must not contain sequences.
+	 * @param dirSlots
+	 *                  The slot each directive reads its variable from.
+	 * @param slots
+	 *                  The slots the variables are stored in.
+	 * @param literalNumbers
+	 *                  The rendered text of each literal count.
+	 * @param rawString
+	 *                  The string the directives came from, or null if there
+	 *                  wasn't one.
+	 */
+	InflectionRenderer(final Inflector inflector, final InflectionString source,
+			final List<InflectionDirective> dirs, final int[] dirSlots,
+			final VariableSlots slots,
+			final InflectionString.LiteralNumber[] literalNumbers,
+			final String rawString) {
+		final Nouns nouns = inflector.getNouns();
+		final InflectionString.LiteralNoun[] literalNouns = source.literalNouns().forms;
+
+		final List<Step> stepList = new ArrayList<>(dirs.size());
+
+		/* The run of text being built up. */
+		final List<String> parts = new ArrayList<>();
+		final List<Integer> partSlots = new ArrayList<>();
+		InflectionString.LiteralNumber lastCount = null;
+
+		for (int i = 0; i < dirs.size(); i++) {
+			final InflectionDirective dir = dirs.get(i);
+			final InflectionString.LiteralNumber number = literalNumbers[i];
+
+			if (number != null && !number.article) {
+				parts.add(number.text);
+				partSlots.add(-1);
+
+				lastCount = number;
+
+				continue;
+			}
+
+			if (literalNouns[i] == null && number == null) {
+				if (dir.type == DirectiveType.LITERAL) {
+					parts.add(dir.litString);
+					partSlots.add(-1);
+
+					continue;
+				} else if (dir.type == DirectiveType.VARIABLE) {
+					parts.add(dir.litString);
+					partSlots.add(dirSlots[i]);
+
+					continue;
+				}
+			}
+
+			if (!parts.isEmpty() || lastCount != null) {
+				stepList.add(new TextStep(parts, partSlots, lastCount));
+
+				parts.clear();
+				partSlots.clear();
+				lastCount = null;
+			}
+
+			if (number != null) {
+				stepList.add(new LiteralCountStep(number));
+			} else if (literalNouns[i] != null) {
+				stepList.add(new LiteralNounStep(i, (NounOptions) dir.opts));
+			} else {
+				stepList.add(step(nouns, dir, dirSlots[i]));
+			}
+		}
+
+		if (!parts.isEmpty() || lastCount != null) {
+			stepList.add(new TextStep(parts, partSlots, lastCount));
+		}
+
+		this.steps = stepList.toArray(new Step[0]);
+
+		this.source = source;
+		this.slots = slots;
+		this.rawString = rawString;
+	}
+
+	/* Turn a directive into a step. */
+	private static Step step(final Nouns nouns, final InflectionDirective dir,
+			final int slot) {
+		switch (dir.type) {
+		case NUMERIC: {
+			final NumericOptions opts = (NumericOptions) dir.opts;
+
+			if (hasOptions(opts))
+				return new OptionCountStep(dir, slot, opts);
+
+			return new CountStep(dir, slot);
+		}
+		case NOUN:
+			return new NounStep(nouns, dir, slot, (NounOptions) dir.opts);
+		default:
+			throw new IllegalArgumentException("Unhandled directive type " + dir.type);
+		}
+	}
+
+	/* Check if numeric options do anything. */
+	private static boolean hasOptions(final NumericOptions opts) {
+		return opts.increment || opts.singular || opts.zeroNo || opts.article
+				|| opts.nonPrint || opts.cardinal || opts.ordinal || opts.summarize;
+	}
+
+	/**
+	 * Render the string.
+	 *
+	 * @param vars
+	 *             The variables to insert into the string.
+	 *
+	 * @return The inflected form of the string.
+	 *
+	 * @see InflectionString#inflect(Object...)
+	 */
+	public String inflect(final Object... vars) {
+		return render(slots.fromArguments(vars));
+	}
+
+	/**
+	 * Render the string.
+	 *
+	 * @param vars
+	 *             The variables to insert into the string.
+	 *
+	 * @return The inflected form of the string.
+	 *
+	 * @see InflectionString#inflect(Map)
+	 */
+	public String inflect(final Map<String, Object> vars) {
+		return render(slots.fromMap(vars));
+	}
+
+	/**
+	 * Render the string.
+	 *
+	 * @param bindings
+	 *                 The variables to insert into the string.
+	 *
+	 * @return The inflected form of the string.
+	 *
+	 * @see InflectionString#inflect(InflectionBindings)
+	 */
+	public String inflect(final InflectionBindings bindings) {
+		if (bindings.slots != slots)
+			throw new IllegalArgumentException(
+					"Bindings were made for a different string");
+
+		return render(bindings.values);
+	}
+
+	/**
+	 * Create a reusable set of bindings for the variables of this string.
+	 *
+	 * @return A new set of bindings, with nothing bound. They can also be used
+	 *         with the string this renderer was made from.
+	 */
+	public InflectionBindings newBindings() {
+		return new InflectionBindings(slots);
+	}
+
+	/**
+	 * Get the slot a variable is stored in.
+	 *
+	 * @param name
+	 *             The name of the variable, without the '$'.
+	 *
+	 * @return The slot for the variable, or -1 if this string doesn't use it.
+	 */
+	public int slotOf(final String name) {
+		return slots.slotOf(name);
+	}
+
+	/* Render the string, with variables taken from their slots. */
+	private String render(final Object[] values) {
+		final State state = new State(values, source.literalNouns().forms);
+
+		for (final Step step : steps) {
+			switch (step.kind) {
+			case TEXT:
+				((TextStep) step).render(state);
+				break;
+			case LITERAL_COUNT:
+				((LiteralCountStep) step).render(state);
+				break;
+			case COUNT:
+				((CountStep) step).render(state);
+				break;
+			case OPTION_COUNT:
+				((OptionCountStep) step).render(state);
+				break;
+			case LITERAL_NOUN:
+				((LiteralNounStep) step).render(state);
+				break;
+			case NOUN:
+				((NounStep) step).render(state);
+				break;
+			default:
+				throw new IllegalStateException("Unknown kind of step " + step.kind);
+			}
+		}
+
+		if (state.out.hasOpenArticle())
+			throw new IllegalArgumentException("Article isn't followed by a noun");
+
+		return state.out.toString();
+	}
+
+	@Override
+	public String toString() {
+		if (rawString != null)
+			return rawString;
+
+		return super.toString();
+	}
+}
@@ -16,19 +16,16 @@ package bjc.inflexion;
 
 import static bjc.inflexion.InflectionDirective.*;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
-import bjc.inflexion.nouns.Noun;
+import bjc.inflexion.nouns.NounForms;
 import bjc.inflexion.nouns.Nouns;
-import bjc.inflexion.nouns.Prepositions;
 
 /**
  * A compiled inflection markup string
@@ -37,50 +34,163 @@ import bjc.inflexion.nouns.Prepositions;
  *
  */
 public class InflectionString {
-	// Create an iterable from an iterator
-	private static Iterable<String> I(Iterator<String> itr) {
-		return () -> itr;
+	/*
+	 * The forms of a literal noun, along with the articles that go with them.
+	 */
+	static final class LiteralNoun {
+		final String singular;
+		final String singularArticle;
+
+		/* The plural the noun's options ask for. */
+		final String plural;
+		final String pluralArticle;
+
+		LiteralNoun(NounForms forms, NounOptions opts) {
+			singular = forms.singular();
+			singularArticle = EnglishUtils.pickIndefinite(singular);
+
+			plural = opts.classical ? forms.classicalPlural() : forms.plural();
+			pluralArticle = EnglishUtils.pickIndefinite(plural);
+		}
 	}
 
-	// Marker for finding articles to replace
-	private static Pattern AN_MARKER = Pattern.compile("\\{an(\\d+)\\}");
+	/*
+	 * The forms of the literal nouns of a string, along with the version of the
+	 * noun DB they were looked up with.
+	 */
+	static final class LiteralNouns {
+		final long version;
 
-	// Noun storage
-	private static Nouns nounDB;
+		/* Null for directives that aren't literal nouns. */
+		final LiteralNoun[] forms;
 
-	/* Load DBs from files. */
-	static {
-		final Prepositions prepositionDB = new Prepositions();
-		try (InputStream strim
-				= InflectionML.class.getResourceAsStream("/prepositions.txt")) {
-			prepositionDB.loadFromStream(strim);
-		} catch (IOException ioex) {
-			ioex.printStackTrace();
+		LiteralNouns(long version, LiteralNoun[] forms) {
+			this.version = version;
+			this.forms = forms;
 		}
+	}
 
-		nounDB = new Nouns(prepositionDB);
-		try (InputStream strim = InflectionML.class.getResourceAsStream("/nouns.txt")) {
-			nounDB.loadFromStream(strim);
-		} catch (IOException ioex) {
-			ioex.printStackTrace();
+	/*
+	 * A literal count, rendered ahead of time.
+	 */
+	static final class LiteralNumber {
+		/* The text of the count. */
+		final String text;
+
+		/* Whether the count is an article, filled in by the next noun. */
+		final boolean article;
+
+		/* Whether nouns after the count are singular. */
+		final boolean singular;
+
+		LiteralNumber(int number, NumericOptions opts) {
+			ArticleBuffer sb = new ArticleBuffer();
+
+			singular = appendNumber(sb, number, opts);
+			article = sb.hasOpenArticle();
+			text = article ? "" : sb.toString();
 		}
 	}
 
 	/*
-	 * The directives that make up the string.
+	 * The directives that make up the string. Never contains sequences, since
+	 * they are flattened out when the string is made.
 	 */
 	private List<InflectionDirective> dirs;
 
+	/*
+	 * The slots the variables of the string are stored in.
+	 */
+	private VariableSlots slots;
+
+	/*
+	 * The slot each directive reads its variable from, or -1 for directives
+	 * that don't use one.
+	 */
+	private int[] dirSlots;
+
+	/*
+	 * The forms of each literal noun, picked out when the string is made, and
+	 * again whenever the noun DB changes.
+	 */
+	private volatile LiteralNouns literalNouns;
+
+	/*
+	 * The rendered text of each literal count. Null for directives that aren't
+	 * literal counts.
+	 */
+	private LiteralNumber[] literalNumbers;
+
 	/*
 	 * String we were formed from.
 	 */
 	private String rawString;
 
+	/*
+	 * The inflector we use.
+	 */
+	private final Inflector inflector;
+
 	/**
 	 * Create a new empty inflection string.
 	 */
 	public InflectionString() {
+		this(Inflector.getDefault());
+	}
+
+	/**
+	 * Create a new empty inflection string.
+	 *
+	 * @param inflector
+	 *                  The inflector to use.
+	 */
+	public InflectionString(Inflector inflector) {
+		this.inflector = inflector;
+
 		dirs = new ArrayList<>();
+
+		prepare();
+	}
+
+	/**
+	 * Create a new inflection string from a set of directives.
+	 *
+	 * @param dirs
+	 *             The directives that make up the string.
+	 */
+	public InflectionString(List<InflectionDirective> dirs) {
+		this(Inflector.getDefault(), dirs);
+	}
+
+	/**
+	 * Create a new inflection string from a set of directives.
+	 *
+	 * Sequences are flattened out as the string is made, so nesting them costs
+	 * nothing when the string is inflected.
+	 *
+	 * @param inflector
+	 *                  The inflector to use.
+	 * @param dirs
+	 *                  The directives that make up the string.
+	 */
+	public InflectionString(Inflector inflector, List<InflectionDirective> dirs) {
+		this(inflector);
+
+		flatten(dirs, this.dirs);
+
+		prepare();
+	}
+
+	/* Add directives to a list, splicing in the contents of sequences. */
+	private static void flatten(List<InflectionDirective> dirs,
+			List<InflectionDirective> flat) {
+		for (InflectionDirective dir : dirs) {
+			if (dir.type == DirectiveType.SEQ) {
+				flatten(dir.listDir, flat);
+			} else {
+				flat.add(dir);
+			}
+		}
 	}
 
 	/**
@@ -90,91 +200,218 @@ public class InflectionString {
 	 *            The string to compile.
 	 */
 	public InflectionString(String inp) {
-		this();
+		this(Inflector.getDefault(), inp);
+	}
 
-		rawString = inp;
+	/**
+	 * Create a new compiled inflection string.
+	 *
+	 * @param inflector
+	 *                  The inflector to use.
+	 * @param inp
+	 *                  The string to compile.
+	 */
+	public InflectionString(Inflector inflector, String inp) {
+		this(inflector);
 
-		int curPos = 0;
+		rawString = inp;
 
 		List<String> parseErrors = new ArrayList<>();
 
-		// Split input on spaces, preserving the delimiters
-		// for (String strang : inp.split("(?<=\\s+)|(?=\\s+)")) {
-		for (String strang : I(new DirectiveIterator(inp))) {
-			InflectionDirective dir = literal("<ERRROR>");
+		MarkupLexer lexer = new MarkupLexer(inp, false);
+		while (lexer.next()) {
+			InflectionDirective dir;
 
-			// Variables start with $
-			if (strang.startsWith("$")) {
-				dir = variable(strang.substring(1));
+			switch (lexer.kind()) {
+			case VARIABLE:
+				// Variables start with $
+				dir = variable(inp.substring(lexer.start() + 1, lexer.end()));
 				dir.isVRef = true;
-			} else if (strang.startsWith("<") && strang.endsWith(">")) {
-				String dirBody = strang.substring(2, strang.length() - 1);
-				char dirName = strang.charAt(1);
+				break;
+			case DIRECTIVE:
+				dir = directive(inp, lexer, parseErrors);
+				break;
+			default:
+				dir = literal(inp.substring(lexer.start(), lexer.end()));
+			}
+
+			if (dir != null)
+				dirs.add(dir);
+		}
 
-				int idx = dirBody.indexOf(":");
-				if (idx == -1)
-					parseErrors.add(error(strang, curPos, "Missing body for %c directive",
-							dirName));
+		if (!parseErrors.isEmpty())
+			throw new InflectionFormatException(inp, parseErrors);
 
-				String options = dirBody.substring(0, idx);
-				dirBody = dirBody.substring(idx + 1);
+		prepare();
+	}
 
-				boolean startFold = false;
-				if (Character.isUpperCase(dirName)) {
-					startFold = true;
-				}
-				switch (dirName) {
-				case '#': {
-					NumericOptions numOpts
-							= new NumericOptions(options, curPos, startFold, parseErrors);
-
-					if (dirBody.startsWith("$")) {
-						dir = numeric(dirBody.substring(1));
-						dir.isVRef = true;
-					} else {
-						try {
-							dir = numeric(Integer.parseInt(dirBody));
-						} catch (NumberFormatException nfex) {
-							parseErrors.add(error(strang, curPos,
-									"Non-integer parameter '%s' to # directive",
-									dirBody));
-						}
-					}
+	/*
+	 * Work out everything rendering needs that doesn't depend on the variables.
+	 */
+	private void prepare() {
+		bindSlots();
+		resolveLiterals();
+	}
 
-					dir.options(numOpts);
-				}
-					break;
-				case 'n':
-				case 'N': {
-					NounOptions nounOpts = new NounOptions(options, curPos, startFold, parseErrors);
+	/* Assign a slot to each variable the directives use. */
+	private void bindSlots() {
+		List<String> names = new ArrayList<>();
 
-					if (dirBody.startsWith("$")) {
-						dir = noun(dirBody.substring(1));
-						dir.isVRef = true;
-					} else {
-						dir = noun(dirBody);
-					}
+		for (InflectionDirective dir : dirs) {
+			if (usesVariable(dir))
+				names.add(dir.litString);
+		}
 
-					dir.options(nounOpts);
-				}
-					break;
-				default:
-					parseErrors.add(error(strang, curPos, "Unhandled directive type %c",
-							dirName));
-				}
+		slots = new VariableSlots(names);
+
+		dirSlots = new int[dirs.size()];
+		for (int i = 0; i < dirSlots.length; i++) {
+			InflectionDirective dir = dirs.get(i);
+
+			dirSlots[i] = usesVariable(dir) ? slots.slotOf(dir.litString) : -1;
+		}
+	}
+
+	/* Look up the forms of literal nouns, and render literal counts. */
+	private void resolveLiterals() {
+		literalNouns = resolveNouns();
+		literalNumbers = new LiteralNumber[dirs.size()];
+
+		for (int i = 0; i < dirs.size(); i++) {
+			InflectionDirective dir = dirs.get(i);
+
+			if (!dir.isVRef && dir.type == DirectiveType.NUMERIC) {
+				literalNumbers[i] = new LiteralNumber(dir.numNumber,
+						(NumericOptions) dir.opts);
+			}
+		}
+	}
+
+	/* Look up the forms of literal nouns. */
+	private LiteralNouns resolveNouns() {
+		Nouns nouns = inflector.getNouns();
+
+		// Read the version first, so a change during lookup is caught next time
+		long version = nouns.getVersion();
+
+		LiteralNoun[] forms = new LiteralNoun[dirs.size()];
+		for (int i = 0; i < forms.length; i++) {
+			InflectionDirective dir = dirs.get(i);
+
+			if (!dir.isVRef && dir.type == DirectiveType.NOUN) {
+				forms[i] = new LiteralNoun(nouns.getForms(dir.litString),
+						(NounOptions) dir.opts);
+			}
+		}
+
+		return new LiteralNouns(version, forms);
+	}
+
+	/**
+	 * Get the forms of the literal nouns of this string, looking them up again
+	 * if anything has been added to the noun DB since they last were.
+	 *
+	 * @return The forms of the literal nouns.
+	 */
+	LiteralNouns literalNouns() {
+		LiteralNouns current = literalNouns;
+
+		if (current.version != inflector.getNouns().getVersion()) {
+			current = resolveNouns();
+
+			literalNouns = current;
+		}
+
+		return current;
+	}
+
+	/* Check if a directive reads a variable. */
+	private static boolean usesVariable(InflectionDirective dir) {
+		switch (dir.type) {
+		case VARIABLE:
+			return true;
+		case NUMERIC:
+		case NOUN:
+			return dir.isVRef;
+		default:
+			return false;
+		}
+	}
+
+	// Parse the directive the lexer is at, or return null if it is malformed
+	private static InflectionDirective directive(String inp, MarkupLexer lexer,
+			List<String> parseErrors) {
+		int curPos = lexer.start();
+		char dirName = lexer.name();
+
+		if (!lexer.hasBody()) {
+			parseErrors.add(error(inp, lexer, "Missing body for %c directive", dirName));
+
+			return null;
+		}
+
+		int bodyStart = lexer.bodyStart();
+		int bodyEnd = lexer.bodyEnd();
+
+		boolean bodyVar = bodyStart < bodyEnd && inp.charAt(bodyStart) == '$';
+
+		boolean startFold = false;
+		if (Character.isUpperCase(dirName)) {
+			startFold = true;
+		}
+
+		InflectionDirective dir = null;
+
+		switch (dirName) {
+		case '#': {
+			NumericOptions numOpts = new NumericOptions(inp, lexer.optionsStart(),
+					lexer.optionsEnd(), curPos, startFold, parseErrors);
+
+			if (bodyVar) {
+				dir = numeric(inp.substring(bodyStart + 1, bodyEnd));
+				dir.isVRef = true;
 			} else {
-				dir = literal(strang);
+				try {
+					dir = numeric(Integer.parseInt(inp, bodyStart, bodyEnd, 10));
+				} catch (NumberFormatException nfex) {
+					parseErrors.add(error(inp, lexer,
+							"Non-integer parameter '%s' to # directive",
+							inp.substring(bodyStart, bodyEnd)));
+
+					return null;
+				}
 			}
 
-			if (dir != null)
-				dirs.add(dir);
+			dir.options(numOpts);
+		}
+			break;
+		case 'n':
+		case 'N': {
+			NounOptions nounOpts = new NounOptions(inp, lexer.optionsStart(),
+					lexer.optionsEnd(), curPos, startFold, parseErrors);
+
+			if (bodyVar) {
+				dir = noun(inp.substring(bodyStart + 1, bodyEnd));
+				dir.isVRef = true;
+			} else {
+				dir = noun(inp.substring(bodyStart, bodyEnd));
+			}
 
-			// Bump forward position.
-			curPos += strang.length();
+			dir.options(nounOpts);
+		}
+			break;
+		default:
+			parseErrors.add(error(inp, lexer, "Unhandled directive type %c", dirName));
 		}
 
-		if (!parseErrors.isEmpty())
-			throw new InflectionFormatException(inp, parseErrors);
+		return dir;
+	}
+
+	// Emit an error message about the directive the lexer is at
+	private static String error(String inp, MarkupLexer lexer, String msg,
+			Object... props) {
+		return error(inp.substring(lexer.start(), lexer.end()), lexer.start(), msg,
+				props);
 	}
 
 	// Emit an error message
@@ -187,19 +424,13 @@ public class InflectionString {
 	 * Execute inflection of the string.
 	 *
 	 * @param vars
-	 *             The variables to insert into the string.
+	 *             The variables to insert into the string. The first one is
+	 *             $1, the second $2, and so on.
 	 *
 	 * @return The inflected form of the string.
 	 */
 	public String inflect(Object... vars) {
-		Map<String, Object> mep = new HashMap<>();
-
-		int i = 0;
-		for (Object var : vars) {
-			mep.put(Integer.toString(++i), var);
-		}
-
-		return inflect(mep);
+		return render(slots.fromArguments(vars));
 	}
 
 	/**
@@ -211,175 +442,362 @@ public class InflectionString {
 	 * @return The inflected form of the string.
 	 */
 	public String inflect(Map<String, Object> vars) {
-		StringBuilder sb = new StringBuilder();
+		return render(slots.fromMap(vars));
+	}
 
-		int curNum = 0;
-		int anNum = 0;
+	/**
+	 * Execute inflection of the string.
+	 *
+	 * @param bindings
+	 *                 The variables to insert into the string.
+	 *
+	 * @return The inflected form of the string.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If the bindings weren't made for this
+	 *                                  string.
+	 */
+	public String inflect(InflectionBindings bindings) {
+		if (bindings.slots != slots)
+			throw new IllegalArgumentException(
+					"Bindings were made for a different string");
+
+		return render(bindings.values);
+	}
+
+	/**
+	 * Create a reusable set of bindings for the variables of this string.
+	 *
+	 * @return A new set of bindings, with nothing bound.
+	 */
+	public InflectionBindings newBindings() {
+		return new InflectionBindings(slots);
+	}
+
+	/**
+	 * Get the slot a variable is stored in.
+	 *
+	 * @param name
+	 *             The name of the variable, without the '$'.
+	 *
+	 * @return The slot for the variable, or -1 if this string doesn't use it.
+	 *
+	 * @see InflectionBindings#set(int, Object)
+	 */
+	public int slotOf(String name) {
+		return slots.slotOf(name);
+	}
+
+	/**
+	 * Execute inflection of the string for many rows of variables at once.
+	 *
+	 * The rows are inflected in parallel, on the common fork-join pool.
+	 *
+	 * @param rows
+	 *             The variables for each row, as they would be passed to
+	 *             {@link #inflect(Object...)}.
+	 *
+	 * @return The inflected form of the string for each row, in order.
+	 *
+	 * @see #inflectAll(Spliterator, ForkJoinPool)
+	 */
+	public List<String> inflectAll(List<Object[]> rows) {
+		return inflectAll(rows.spliterator(), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Execute inflection of the string for many rows of variables at once.
+	 *
+	 * The rows are inflected in parallel, on the common fork-join pool.
+	 *
+	 * @param rows
+	 *             The variables for each row, as they would be passed to
+	 *             {@link #inflect(Object...)}.
+	 *
+	 * @return The inflected form of the string for each row, in the order the
+	 *         stream encounters them.
+	 *
+	 * @see #inflectAll(Spliterator, ForkJoinPool)
+	 */
+	public List<String> inflectAll(Stream<Object[]> rows) {
+		return inflectAll(rows.spliterator(), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Execute inflection of the string for many rows of variables at once.
+	 *
+	 * The rows are split up between the workers of the pool, and each worker
+	 * reuses the same buffers for every row it inflects.
+	 *
+	 * @param rows
+	 *             The variables for each row, as they would be passed to
+	 *             {@link #inflect(Object...)}.
+	 * @param pool
+	 *             The pool to inflect the rows on.
+	 *
+	 * @return The inflected form of the string for each row, in order.
+	 */
+	public List<String> inflectAll(Spliterator<Object[]> rows, ForkJoinPool pool) {
+		return BulkRenderTask.flatten(
+				pool.invoke(new BulkRenderTask(this, rows, null, pool.getParallelism())));
+	}
+
+	/**
+	 * Execute inflection of the string for many rows of variables at once,
+	 * handing the results to a sink instead of collecting them.
+	 *
+	 * The sink is called from many threads at once, in no particular order, so
+	 * it must be thread-safe. It is given each row along with its result.
+	 *
+	 * @param rows
+	 *             The variables for each row, as they would be passed to
+	 *             {@link #inflect(Object...)}.
+	 * @param pool
+	 *             The pool to inflect the rows on.
+	 * @param sink
+	 *             The sink to send each row and its result to.
+	 */
+	public void inflectAll(Spliterator<Object[]> rows, ForkJoinPool pool,
+			BiConsumer<? super Object[], ? super String> sink) {
+		pool.invoke(new BulkRenderTask(this, rows, sink, pool.getParallelism()));
+	}
+
+	/**
+	 * Inflect the string for one row of a bulk inflection.
+	 *
+	 * @param args
+	 *               The variables to insert into the string.
+	 * @param buffer
+	 *               The buffer to inflect into. Emptied before it is used.
+	 *
+	 * @return The inflected form of the string.
+	 */
+	String inflectRow(Object[] args, ArticleBuffer buffer) {
+		buffer.clear();
+
+		return render(slots.fromArguments(args), buffer);
+	}
+
+	/* Inflect the string, with variables taken from their slots. */
+	private String render(Object[] values) {
+		return render(values, new ArticleBuffer());
+	}
+
+	/* Inflect the string into a buffer, with variables taken from their slots. */
+	private String render(Object[] values, ArticleBuffer sb) {
 
 		boolean inflectSingular = false;
-		boolean pendingAn = false;
 
-		List<String> anVals = new ArrayList<>();
+		LiteralNoun[] nounForms = literalNouns().forms;
+
+		for (int i = 0; i < dirSlots.length; i++) {
+			InflectionDirective dir = dirs.get(i);
 
-		QueuedIterator<InflectionDirective> itrDirs = new QueuedIterator<>(dirs);
-		Iterable<InflectionDirective> itrb = () -> itrDirs;
-		for (InflectionDirective dir : itrb) {
 			switch (dir.type) {
 			case LITERAL:
 				sb.append(dir.litString);
 				break;
 			case VARIABLE: {
-				String vName = dir.litString;
-
-				if (vars.containsKey(vName)) {
-					sb.append(vars.get(vName));
+				if (VariableSlots.isBound(values, dirSlots[i])) {
+					sb.append(String.valueOf(values[dirSlots[i]]));
 				} else {
-					throw new IllegalArgumentException("Unbound variable " + vName);
+					throw new IllegalArgumentException("Unbound variable " + dir.litString);
 				}
 
 			}
 				break;
 			case NUMERIC: {
-				int actNum;
-
-				if (dir.isVRef) {
-					Object val = vars.get(dir.litString);
-
-					if (!(val instanceof Integer))
-						throw new IllegalArgumentException("Non-numeric variable "
-								+ dir.litString + " passed to # directive");
-
-					actNum = (Integer) val;
-				} else {
-					actNum = dir.numNumber;
-				}
+				LiteralNumber number = literalNumbers[i];
 
-				curNum = actNum;
-				{
-					NumericOptions opts = (NumericOptions) dir.opts;
-					String rep = Integer.toString(curNum);
-
-					if (opts.increment)
-						curNum += opts.incrementAmt;
-					if (curNum == 1) {
-						inflectSingular = true;
-					} else if (curNum == 0 && opts.singular) {
-						inflectSingular = true;
+				if (number != null) {
+					if (number.article) {
+						sb.reserveArticle();
 					} else {
-						inflectSingular = false;
+						sb.append(number.text);
 					}
 
-					if (opts.zeroNo && curNum == 0)
-						rep = "no";
-
-					if (opts.article && curNum == 1) {
-						anNum += 1;
-						rep = "{an" + anNum + "}";
-
-						pendingAn = true;
-					}
-
-					if (opts.nonPrint)
-						break;
-
-					boolean override = true;
-					if (rep.equals("no") || rep.matches("\\{an\\d+\\}")) {
-						override = false;
-					}
+					inflectSingular = number.singular;
+					break;
+				}
 
-					if (override) {
-						if (opts.cardinal) {
-							rep = NumberUtils.toCardinal(curNum, opts.cardinalThresh);
-						}
-
-						if (opts.ordinal) {
-							if (opts.cardinal) {
-								rep = NumberUtils.toOrdinal(curNum, opts.ordinalThresh,
-										curNum < opts.cardinalThresh);
-							} else {
-								rep = NumberUtils.toOrdinal(curNum, opts.ordinalThresh,
-										false);
-							}
-
-							if (curNum < opts.ordinalThresh) {
-								// Respect english usage of ordinals
-								curNum = 1;
-
-								inflectSingular = true;
-							}
-						}
-
-						if (opts.summarize) {
-							rep = NumberUtils.summarizeNumber(curNum, opts.atEnd);
-						}
-					}
+				Object val = VariableSlots.get(values, dirSlots[i]);
 
-					sb.append(rep);
-				}
+				if (!(val instanceof Integer))
+					throw new IllegalArgumentException("Non-numeric variable "
+							+ dir.litString + " passed to # directive");
 
+				inflectSingular = appendNumber(sb, (Integer) val,
+						(NumericOptions) dir.opts);
 			}
 				break;
 			case NOUN: {
 				NounOptions nounOpts = (NounOptions) dir.opts;
+				LiteralNoun noun = nounForms[i];
 
-				String actNoun;
-
-				if (dir.isVRef) {
-					Object val = vars.get(dir.litString);
+				boolean plural = nounOpts.plural || !inflectSingular;
 
-					if (!(val instanceof String))
-						throw new IllegalArgumentException("Non-numeric variable "
-								+ dir.litString + " passed to # directive");
+				String nounVal;
+				String article;
 
-					actNoun = (String) val;
+				if (noun != null) {
+					nounVal = plural ? noun.plural : noun.singular;
+					article = plural ? noun.pluralArticle : noun.singularArticle;
 				} else {
-					actNoun = dir.litString;
-				}
+					Object val = VariableSlots.get(values, dirSlots[i]);
 
-				final Noun noun = nounDB.getNoun(actNoun);
+					if (!(val instanceof String))
+						throw new IllegalArgumentException("Non-string variable "
+								+ dir.litString + " passed to N directive");
 
-				String nounVal;
+					NounForms forms = inflector.getNouns().getForms((String) val);
 
-				if (nounOpts.plural || !inflectSingular) {
-					if (nounOpts.classical) {
-						nounVal = noun.classicalPlural();
+					if (plural) {
+						nounVal = nounOpts.classical ? forms.classicalPlural()
+								: forms.plural();
 					} else {
-						nounVal = noun.plural();
+						nounVal = forms.singular();
 					}
-				} else {
-					nounVal = noun.singular();
+
+					article = null;
 				}
 
-				sb.append(nounVal);
-				if (pendingAn) {
-					anVals.add(EnglishUtils.pickIndefinite(nounVal));
+				if (sb.hasOpenArticle()) {
+					if (article == null)
+						article = EnglishUtils.pickIndefinite(nounVal);
 
-					pendingAn = false;
+					sb.fillArticles(article);
 				}
+				sb.append(nounVal);
 			}
 				break;
-			case SEQ:
-				itrDirs.before(dir.listDir);
-				break;
 			default:
 				throw new IllegalArgumentException(
 						"Unhandled directive type " + dir.type);
 			}
 		}
 
-		String res = sb.toString();
+		if (sb.hasOpenArticle())
+			throw new IllegalArgumentException("Article isn't followed by a noun");
+
+		return sb.toString();
+	}
+
+	/**
+	 * Print a count the way its options say to.
+	 *
+	 * @param sb
+	 *               The buffer to print into. Articles are left open, for a
+	 *               later noun to fill.
+	 * @param actNum
+	 *               The count.
+	 * @param opts
+	 *               The options for the count.
+	 *
+	 * @return Whether nouns after the count should be singular.
+	 */
+	static boolean appendNumber(ArticleBuffer sb, int actNum, NumericOptions opts) {
+		return appendNumber(sb, actNum, Integer.toString(actNum), opts);
+	}
+
+	/**
+	 * Print a count the way its options say to.
+	 *
+	 * @param sb
+	 *               The buffer to print into. Articles are left open, for a
+	 *               later noun to fill.
+	 * @param actNum
+	 *               The count.
+	 * @param text
+	 *               The count as it was written, which is printed unless an
+	 *               option changes it.
+	 * @param opts
+	 *               The options for the count.
+	 *
+	 * @return Whether nouns after the count should be singular.
+	 */
+	static boolean appendNumber(ArticleBuffer sb, int actNum, String text,
+			NumericOptions opts) {
+		int curNum = actNum;
+		String rep = text;
+
+		boolean inflectSingular;
+
+		if (opts.increment)
+			curNum += opts.incrementAmt;
+		if (curNum == 1) {
+			inflectSingular = true;
+		} else if (curNum == 0 && opts.singular) {
+			inflectSingular = true;
+		} else {
+			inflectSingular = false;
+		}
+
+		boolean override = true;
+		boolean useArticle = false;
+
+		if (opts.zeroNo && curNum == 0) {
+			rep = "no";
+
+			override = false;
+		}
+
+		if (opts.article && curNum == 1) {
+			useArticle = true;
+
+			override = false;
+		}
+
+		if (opts.nonPrint)
+			return inflectSingular;
+
+		if (override) {
+			if (opts.cardinal) {
+				rep = NumberUtils.toCardinal(curNum, opts.cardinalThresh);
+			}
 
-		StringBuffer work = new StringBuffer();
+			if (opts.ordinal) {
+				if (opts.cardinal) {
+					rep = NumberUtils.toOrdinal(curNum, opts.ordinalThresh,
+							curNum < opts.cardinalThresh);
+				} else {
+					rep = NumberUtils.toOrdinal(curNum, opts.ordinalThresh, false);
+				}
 
-		Matcher anMat = AN_MARKER.matcher(res);
+				if (curNum < opts.ordinalThresh) {
+					// Respect english usage of ordinals
+					curNum = 1;
 
-		Iterator<String> anItr = anVals.iterator();
-		while (anMat.find()) {
-			anMat.appendReplacement(work, anItr.next());
+					inflectSingular = true;
+				}
+			}
+
+			if (opts.summarize) {
+				rep = NumberUtils.summarizeNumber(curNum, opts.atEnd);
+			}
 		}
-		anMat.appendTail(work);
 
-		return work.toString();
+		if (useArticle) {
+			// The article depends on the noun, so fill it in later.
+			sb.reserveArticle();
+		} else {
+			sb.append(rep);
+		}
+
+		return inflectSingular;
+	}
+
+	/**
+	 * Specialize this string for rendering.
+	 *
+	 * The renderer gives the same results as {@link #inflect(Map)}, but does
+	 * less work each time, so is worth making for strings that get inflected a
+	 * lot.
+	 *
+	 * @return A renderer for this string.
+	 */
+	public InflectionRenderer specialize() {
+		return new InflectionRenderer(inflector, this, dirs, dirSlots, slots,
+				literalNumbers, rawString);
 	}
 
 	@Override
@@ -0,0 +1,234 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.util.List;
+
+import bjc.inflexion.internal.BoundedCache;
+import bjc.inflexion.nouns.Nouns;
+import bjc.inflexion.nouns.Prepositions;
+
+/**
+ * An inflection engine, which owns the databases and caches used for
+ * inflecting strings.
+ *
+ * Both {@link InflectionML} and {@link InflectionString} run on top of an
+ * inflector. If one isn't specified, they use the shared default one, which
+ * is loaded the first time it is needed.
+ *
+ * @author bjculkin
+ */
+public class Inflector {
+	/**
+	 * The number of nouns the default inflector caches.
+	 */
+	public static final int DEFAULT_NOUN_CACHE_SIZE = 4096;
+
+	/**
+	 * The number of parsed markup strings an inflector caches, unless told
+	 * otherwise.
+	 */
+	public static final int DEFAULT_TEMPLATE_CACHE_SIZE = 256;
+
+	/* Holder for the default inflector, so it's only loaded when needed. */
+	private static final class DefaultHolder {
+		static final Inflector DEFAULT = load(DEFAULT_NOUN_CACHE_SIZE);
+	}
+
+	/* The database of prepositions. */
+	private final Prepositions prepositionDB;
+
+	/* The database of nouns. */
+	private final Nouns nounDB;
+
+	/* The parsed forms of markup strings, or null if they aren't cached. */
+	private final BoundedCache<String, List<InflectionDirective>> templateCache;
+
+	/**
+	 * Create a new inflector, which caches the default number of parsed markup
+	 * strings.
+	 *
+	 * @param prepDB
+	 *               The database of prepositions to use.
+	 *
+	 * @param nounDB
+	 *               The database of nouns to use. Should be using prepDB as its
+	 *               source for prepositions.
+	 */
+	public Inflector(final Prepositions prepDB, final Nouns nounDB) {
+		this(prepDB, nounDB, DEFAULT_TEMPLATE_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a new inflector.
+	 *
+	 * @param prepDB
+	 *                          The database of prepositions to use.
+	 *
+	 * @param nounDB
+	 *                          The database of nouns to use. Should be using
+	 *                          prepDB as its source for prepositions.
+	 *
+	 * @param templateCacheSize
+	 *                          The number of parsed markup strings to cache, or
+	 *                          zero to parse them every time.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If the cache size is negative.
+	 */
+	public Inflector(final Prepositions prepDB, final Nouns nounDB,
+			final int templateCacheSize) {
+		if (templateCacheSize < 0)
+			throw new IllegalArgumentException(
+					"Template cache size must not be negative, not " + templateCacheSize);
+
+		this.prepositionDB = prepDB;
+		this.nounDB = nounDB;
+
+		if (templateCacheSize > 0) {
+			templateCache = new BoundedCache<>(templateCacheSize);
+		} else {
+			templateCache = null;
+		}
+	}
+
+	/**
+	 * Get the shared default inflector.
+	 *
+	 * This uses the built-in noun and preposition databases, and is loaded the
+	 * first time it is asked for.
+	 *
+	 * @return The default inflector.
+	 */
+	public static Inflector getDefault() {
+		return DefaultHolder.DEFAULT;
+	}
+
+	/**
+	 * Create a new inflector using the built-in noun and preposition databases.
+	 *
+	 * These are compiled into the library when it is built, so nothing needs to
+	 * be read or parsed to load them.
+	 *
+	 * @param nounCacheSize
+	 *                      The number of nouns to cache, or zero to not cache
+	 *                      nouns.
+	 *
+	 * @return A new inflector.
+	 */
+	public static Inflector load(final int nounCacheSize) {
+		final Prepositions prepositionDB = new Prepositions();
+		final Nouns nounDB = new Nouns(prepositionDB, nounCacheSize);
+		nounDB.loadPredefined();
+
+		return new Inflector(prepositionDB, nounDB);
+	}
+
+	/**
+	 * Get the database of prepositions.
+	 *
+	 * @return The database of prepositions.
+	 */
+	public Prepositions getPrepositions() {
+		return prepositionDB;
+	}
+
+	/**
+	 * Get the database of nouns.
+	 *
+	 * @return The database of nouns.
+	 */
+	public Nouns getNouns() {
+		return nounDB;
+	}
+
+	/**
+	 * Get the number of markup strings that were found in the template cache.
+	 *
+	 * Along with {@link #getTemplateCacheMisses()}, this can be used to decide
+	 * how big the cache should be.
+	 *
+	 * @return The number of cache hits since the statistics were last reset, or
+	 *         zero if markup strings aren't cached.
+	 */
+	public long getTemplateCacheHits() {
+		return templateCache == null ? 0 : templateCache.getHits();
+	}
+
+	/**
+	 * Get the number of markup strings that had to be parsed because they
+	 * weren't in the template cache.
+	 *
+	 * @return The number of cache misses since the statistics were last reset,
+	 *         or zero if markup strings aren't cached.
+	 */
+	public long getTemplateCacheMisses() {
+		return templateCache == null ? 0 : templateCache.getMisses();
+	}
+
+	/**
+	 * Get the number of parsed markup strings in the template cache.
+	 *
+	 * @return The number of cached markup strings, or zero if they aren't
+	 *         cached.
+	 */
+	public int getTemplateCacheSize() {
+		return templateCache == null ? 0 : templateCache.size();
+	}
+
+	/**
+	 * Reset the hit and miss counts of the template cache to zero.
+	 */
+	public void resetTemplateCacheStatistics() {
+		if (templateCache != null)
+			templateCache.resetStatistics();
+	}
+
+	/**
+	 * Apply inflection to marked forms in a string.
+	 *
+	 * @param form
+	 *             The string to inflect.
+	 *
+	 * @return The inflected string.
+	 *
+	 * @see InflectionML#inflect(String)
+	 */
+	public String inflect(final String form) {
+		return InflectionML.inflect(this, form);
+	}
+
+	/**
+	 * Compile an inflection string that uses this inflector.
+	 *
+	 * @param form
+	 *             The string to compile.
+	 *
+	 * @return The compiled inflection string.
+	 *
+	 * @throws InflectionFormatException
+	 *                                   If the string isn't properly formatted.
+	 */
+	public InflectionString compile(final String form) {
+		return new InflectionString(this, form);
+	}
+
+	/* Get the parsed form of a markup string, from the cache if possible. */
+	List<InflectionDirective> compileMarkup(final String form) {
+		if (templateCache == null)
+			return InflectionML.compile(form);
+
+		return templateCache.get(form, InflectionML::compile);
+	}
+}
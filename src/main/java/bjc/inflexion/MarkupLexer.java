@@ -0,0 +1,335 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+/**
+ * Single-pass lexer for inflection strings and inflection markup.
+ *
+ * Tokens aren't copied out of the source. Instead, the lexer steps from one
+ * token to the next, and gives the offsets of the current one, and of the
+ * name, options and body of a directive.
+ *
+ * There are two dialects. {@link InflectionString} directives can nest and
+ * refer to variables, and stray or unclosed brackets are errors.
+ * {@link InflectionML} only knows about '#', 'N' and 'n' forms, and anything
+ * else is just text.
+ *
+ * @author bjculkin
+ */
+final class MarkupLexer {
+	/**
+	 * The kinds of token.
+	 *
+	 * @author bjculkin
+	 */
+	enum TokenKind {
+		/**
+		 * Plain text.
+		 */
+		LITERAL,
+		/**
+		 * A reference to a variable, starting with '$'.
+		 */
+		VARIABLE,
+		/**
+		 * A directive, in angle brackets.
+		 */
+		DIRECTIVE
+	}
+
+	/* The string being lexed. */
+	private final String source;
+
+	/* Whether we are lexing inflection markup, instead of inflection strings. */
+	private final boolean markup;
+
+	/* Where the next token starts. */
+	private int pos;
+
+	/* The current token. */
+	private TokenKind kind;
+	private int start;
+	private int end;
+
+	/* The position of the ':' in the current directive, or -1 if it has none. */
+	private int colon;
+
+	/* The next markup directive, found while finding the end of a literal. */
+	private int nextStart = -1;
+	private int nextColon;
+	private int nextEnd;
+
+	/**
+	 * Create a new lexer.
+	 *
+	 * @param source
+	 *               The string to lex.
+	 * @param markup
+	 *               Whether to lex it as inflection markup, instead of as an
+	 *               inflection string.
+	 */
+	MarkupLexer(String source, boolean markup) {
+		this.source = source;
+		this.markup = markup;
+	}
+
+	/**
+	 * Move on to the next token.
+	 *
+	 * @return Whether there was another token.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If an inflection string has a stray or
+	 *                                  unclosed bracket.
+	 */
+	boolean next() {
+		if (pos >= source.length())
+			return false;
+
+		start = pos;
+		colon = -1;
+
+		if (markup) {
+			nextMarkup();
+		} else {
+			nextString();
+		}
+
+		pos = end;
+
+		return true;
+	}
+
+	/**
+	 * Get the kind of the current token.
+	 *
+	 * @return The kind of the current token.
+	 */
+	TokenKind kind() {
+		return kind;
+	}
+
+	/**
+	 * Get where the current token starts.
+	 *
+	 * @return The offset of the start of the token.
+	 */
+	int start() {
+		return start;
+	}
+
+	/**
+	 * Get where the current token ends.
+	 *
+	 * @return The offset just past the end of the token.
+	 */
+	int end() {
+		return end;
+	}
+
+	/**
+	 * Get the name of the current directive.
+	 *
+	 * @return The character naming the directive.
+	 */
+	char name() {
+		return source.charAt(start + 1);
+	}
+
+	/**
+	 * Check if the current directive has a body, separated from its options by
+	 * a ':'.
+	 *
+	 * @return Whether the directive has a body.
+	 */
+	boolean hasBody() {
+		return colon >= 0;
+	}
+
+	/**
+	 * Get where the options of the current directive start.
+	 *
+	 * @return The offset of the start of the options.
+	 */
+	int optionsStart() {
+		return start + 2;
+	}
+
+	/**
+	 * Get where the options of the current directive end.
+	 *
+	 * @return The offset just past the end of the options.
+	 */
+	int optionsEnd() {
+		return colon;
+	}
+
+	/**
+	 * Get where the body of the current directive starts.
+	 *
+	 * @return The offset of the start of the body.
+	 */
+	int bodyStart() {
+		return colon + 1;
+	}
+
+	/**
+	 * Get where the body of the current directive ends.
+	 *
+	 * @return The offset just past the end of the body.
+	 */
+	int bodyEnd() {
+		return end - 1;
+	}
+
+	/* Lex the next inflection string token. */
+	private void nextString() {
+		final int len = source.length();
+
+		int level = 0;
+		int i = start;
+
+		if (source.charAt(i) == '<') {
+			kind = TokenKind.DIRECTIVE;
+		} else if (source.charAt(i) == '$') {
+			kind = TokenKind.VARIABLE;
+
+			i += 1;
+		} else {
+			kind = TokenKind.LITERAL;
+		}
+
+		for (; i < len; i++) {
+			final char c = source.charAt(i);
+
+			switch (c) {
+			case '<':
+				// A directive ends anything else.
+				if (kind != TokenKind.DIRECTIVE) {
+					end = i;
+
+					return;
+				}
+
+				level += 1;
+				break;
+			case '>':
+				// :ErrorHandling 11/19/18
+				if (level == 0)
+					throw new IllegalArgumentException(
+							"Attempted to close inflection directive without one open at position "
+									+ start + " in string '" + source
+									+ "', current token is '"
+									+ source.substring(start, i) + "'");
+
+				level -= 1;
+
+				if (level == 0) {
+					end = i + 1;
+
+					return;
+				}
+				break;
+			case ':':
+				// The first one after the name splits the options from the body.
+				if (kind == TokenKind.DIRECTIVE && colon < 0 && i > start + 1)
+					colon = i;
+				break;
+			case '$':
+				// Variables are ignored inside of directives.
+				if (kind != TokenKind.DIRECTIVE) {
+					end = i;
+
+					return;
+				}
+				break;
+			case ' ':
+				if (kind == TokenKind.VARIABLE) {
+					end = i;
+
+					return;
+				}
+				break;
+			default:
+				// Do nothing for ordinary characters
+				break;
+			}
+		}
+
+		if (level > 0)
+			throw new IllegalArgumentException(
+					"Unclosed inflection directive, starting at position " + start
+							+ " in string '" + source + "'");
+
+		end = len;
+	}
+
+	/* Lex the next inflection markup token. */
+	private void nextMarkup() {
+		if (nextStart < start) {
+			findMarkupDirective(start);
+		}
+
+		if (nextStart == start) {
+			kind = TokenKind.DIRECTIVE;
+
+			colon = nextColon;
+			end = nextEnd;
+		} else {
+			// Everything up to the next directive is text.
+			kind = TokenKind.LITERAL;
+
+			end = nextStart;
+		}
+	}
+
+	/*
+	 * Find the next markup directive, starting from a position. If there aren't
+	 * any more, it is taken to start at the end of the string.
+	 *
+	 * A markup directive is a '<', followed by a '#', an 'N' or an 'n', options, a
+	 * ':', a body, and then a '>'.
+	 */
+	private void findMarkupDirective(int from) {
+		final int len = source.length();
+
+		for (int i = source.indexOf('<', from); i >= 0 && i + 1 < len; i
+				= source.indexOf('<', i + 1)) {
+			final char name = source.charAt(i + 1);
+
+			if (name != '#' && name != 'N' && name != 'n')
+				continue;
+
+			int j = i + 2;
+			while (j < len && source.charAt(j) != ':' && source.charAt(j) != '>')
+				j += 1;
+
+			if (j >= len || source.charAt(j) != ':')
+				continue;
+
+			final int close = source.indexOf('>', j + 1);
+
+			if (close < 0)
+				break;
+
+			nextStart = i;
+			nextColon = j;
+			nextEnd = close + 1;
+
+			return;
+		}
+
+		nextStart = len;
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import bjc.inflexion.nouns.InflectionException;
+import bjc.inflexion.nouns.Nouns;
+
+/**
+ * Inflects markup as it is read, without holding all of it in memory.
+ *
+ * Input is read into a fixed-size window. Each time, the window is cut after
+ * the last point where no directive can still be incomplete; the text before
+ * that is compiled and rendered, and the rest is kept for the next read. Count
+ * state and open articles carry over between cuts, so the output is the same
+ * as inflecting the whole input at once.
+ *
+ * Finished output is written out after every cut. Output waiting for a noun to
+ * pick its article can't be, so it is held until the noun shows up.
+ *
+ * @author bjculkin
+ */
+final class MarkupStreamer {
+	/* The nouns to inflect with. */
+	private final Nouns nouns;
+
+	/* The input not yet inflected. */
+	private final char[] window;
+
+	/* The amount of the window in use. */
+	private int filled = 0;
+
+	/* The output not yet written. */
+	private final ArticleBuffer out = new ArticleBuffer();
+
+	/* Whether nouns should be singular. */
+	private boolean inflectSingular = true;
+
+	/**
+	 * Create a new streamer.
+	 *
+	 * @param inflector
+	 *                   The inflector to use.
+	 * @param bufferSize
+	 *                   The most input to hold at once. This is also the most
+	 *                   output that can wait on an article, and the longest a
+	 *                   directive can be.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If the buffer size isn't positive.
+	 */
+	MarkupStreamer(final Inflector inflector, final int bufferSize) {
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException(
+					"Buffer size must be positive, was " + bufferSize);
+
+		this.nouns = inflector.getNouns();
+		this.window = new char[bufferSize];
+	}
+
+	/**
+	 * Inflect all of the markup from a reader.
+	 *
+	 * @param in
+	 *            The reader to inflect markup from.
+	 * @param dest
+	 *            The writer to write the inflected text to.
+	 *
+	 * @throws IOException
+	 *                              If the reader or writer fail.
+	 * @throws InflectionException
+	 *                              If the markup is invalid, a directive doesn't
+	 *                              fit in the buffer, or too much text is
+	 *                              waiting on an article.
+	 */
+	void inflect(final Reader in, final Writer dest) throws IOException {
+		boolean atEnd = false;
+
+		while (!atEnd) {
+			final int read = in.read(window, filled, window.length - filled);
+
+			if (read < 0) {
+				atEnd = true;
+			} else {
+				filled += read;
+			}
+
+			final int cut = atEnd ? filled : safeEnd();
+
+			if (cut == 0 && filled == window.length)
+				throw new InflectionException(String.format(
+						"Directive is longer than the %d character buffer",
+						window.length));
+
+			if (cut > 0) {
+				render(cut);
+
+				out.drainTo(dest);
+
+				if (out.pendingLength() > window.length)
+					throw new InflectionException(String.format(
+							"Article isn't followed by a noun within %d characters",
+							window.length));
+			}
+		}
+
+		if (out.hasOpenArticle())
+			throw new InflectionException("Article isn't followed by a noun");
+
+		dest.flush();
+	}
+
+	/*
+	 * Find the end of the part of the window that can be inflected now. That is
+	 * everything up to the first '<' after the last '>' that could still start a
+	 * directive.
+	 */
+	private int safeEnd() {
+		int start = filled - 1;
+		while (start >= 0 && window[start] != '>')
+			start -= 1;
+
+		for (int i = start + 1; i < filled; i++) {
+			if (window[i] != '<')
+				continue;
+
+			if (i + 1 == filled)
+				return i;
+
+			final char name = window[i + 1];
+
+			if (name == '#' || name == 'N' || name == 'n')
+				return i;
+		}
+
+		return filled;
+	}
+
+	/* Inflect the start of the window, and drop it. */
+	private void render(final int cut) {
+		final String text = new String(window, 0, cut);
+
+		inflectSingular = InflectionML.render(nouns, InflectionML.compile(text), out,
+				inflectSingular);
+
+		System.arraycopy(window, cut, window, 0, filled - cut);
+		filled -= cut;
+	}
+}
@@ -51,13 +51,30 @@ public class NounOptions extends Options {
 	 *                    The current list of parsing errors.
 	 */
 	public NounOptions(String options, int curPos, boolean startFold, List<String> parseErrors) {
-		if (options.equals(""))
-			return;
+		this(options, 0, options.length(), curPos, startFold, parseErrors);
+	}
 
+	/**
+	 * Create a new set of noun options from part of a string.
+	 *
+	 * @param source
+	 *                    The string containing the options.
+	 * @param start
+	 *                    Where the options start.
+	 * @param end
+	 *                    Where the options end.
+	 * @param curPos
+	 *                    The current position into the string.
+	 * @param startFold Whether to start with folding on
+	 * @param parseErrors
+	 *                    The current list of parsing errors.
+	 */
+	public NounOptions(CharSequence source, int start, int end, int curPos,
+			boolean startFold, List<String> parseErrors) {
 		boolean doingCaseFolding = startFold;
 
-		for (int i = 0; i < options.length(); i++) {
-			char ci = options.charAt(i);
+		for (int i = 0; i < end - start; i++) {
+			char ci = source.charAt(start + i);
 
 			if (doingCaseFolding && Character.isLowerCase(ci)) {
 				continue;
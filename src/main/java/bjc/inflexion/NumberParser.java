@@ -0,0 +1,466 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.text.ParsePosition;
+import java.util.Arrays;
+
+/**
+ * Parser for numbers written the way {@link NumberUtils} writes them.
+ *
+ * Words are read straight out of the text, and looked up in a trie built from
+ * the tables NumberUtils writes numbers with, so parsing doesn't allocate
+ * anything.
+ *
+ * @author bjculkin
+ */
+final class NumberParser {
+	/* The kinds of word. */
+	private static final byte UNIT = 0;
+	private static final byte TEN = 1;
+	private static final byte HUNDRED = 2;
+	private static final byte SCALE = 3;
+	private static final byte AND = 4;
+	private static final byte SIGN = 5;
+
+	/* The number of letters the trie branches on. */
+	private static final int LETTERS = 26;
+
+	/* The child of each trie node for each letter, or zero for none. */
+	private int[] children = new int[LETTERS * 64];
+
+	/* The word ending at each trie node, or -1 for none. */
+	private int[] nodeWords = new int[64];
+
+	/* The number of trie nodes. The root is node zero. */
+	private int numNodes = 1;
+
+	/* The kind, value and ordinality of each word. */
+	private byte[] wordKinds = new byte[64];
+	private long[] wordValues = new long[64];
+	private boolean[] wordOrdinals = new boolean[64];
+
+	/* The number of words. */
+	private int numWords = 0;
+
+	/**
+	 * Create a new parser.
+	 *
+	 * @param cardinals
+	 *                    The cardinals of the numbers from zero to nineteen.
+	 * @param cardinalTens
+	 *                    The cardinals of multiples of ten, by tens digit.
+	 * @param ordinals
+	 *                    The ordinals of the numbers from zero to nineteen.
+	 * @param ordinalTens
+	 *                    The ordinals of multiples of ten, by tens digit.
+	 * @param hundred
+	 *                    The name of a hundred.
+	 * @param scaleValues
+	 *                    The values of each scale.
+	 * @param scaleNames
+	 *                    The names of each scale. Their ordinals are their names
+	 *                    with 'th' on the end.
+	 */
+	NumberParser(String[] cardinals, String[] cardinalTens, String[] ordinals,
+			String[] ordinalTens, String hundred, long[] scaleValues,
+			String[] scaleNames) {
+		Arrays.fill(nodeWords, -1);
+
+		for (int i = 0; i < 20; i++) {
+			addWord(cardinals[i], UNIT, i, false);
+			addWord(ordinals[i], UNIT, i, true);
+		}
+
+		for (int i = 2; i < cardinalTens.length; i++) {
+			addWord(cardinalTens[i], TEN, i * 10, false);
+			addWord(ordinalTens[i], TEN, i * 10, true);
+		}
+
+		addWord(hundred, HUNDRED, 100, false);
+		addWord(hundred + "th", HUNDRED, 100, true);
+
+		for (int i = 0; i < scaleValues.length; i++) {
+			addWord(scaleNames[i], SCALE, scaleValues[i], false);
+			addWord(scaleNames[i] + "th", SCALE, scaleValues[i], true);
+		}
+
+		addWord("and", AND, 0, false);
+		addWord("negative", SIGN, 0, false);
+		addWord("minus", SIGN, 0, false);
+	}
+
+	/* Add a word to the trie. */
+	private void addWord(String word, byte kind, long value, boolean ordinal) {
+		final String trimmed = word.trim();
+
+		int node = 0;
+		for (int i = 0; i < trimmed.length(); i++) {
+			final int slot = node * LETTERS + letter(trimmed.charAt(i));
+
+			if (children[slot] == 0) {
+				if (numNodes == nodeWords.length) {
+					children = Arrays.copyOf(children, children.length * 2);
+
+					nodeWords = Arrays.copyOf(nodeWords, nodeWords.length * 2);
+					Arrays.fill(nodeWords, numNodes, nodeWords.length, -1);
+				}
+
+				children[slot] = numNodes;
+				numNodes += 1;
+			}
+
+			node = children[slot];
+		}
+
+		if (numWords == wordKinds.length) {
+			wordKinds = Arrays.copyOf(wordKinds, numWords * 2);
+			wordValues = Arrays.copyOf(wordValues, numWords * 2);
+			wordOrdinals = Arrays.copyOf(wordOrdinals, numWords * 2);
+		}
+
+		nodeWords[node] = numWords;
+		wordKinds[numWords] = kind;
+		wordValues[numWords] = value;
+		wordOrdinals[numWords] = ordinal;
+
+		numWords += 1;
+	}
+
+	/**
+	 * Parse a number, written out in words or in digits.
+	 *
+	 * On success, the index of the position is moved past the number. On
+	 * failure, the index is left alone, and the error index is set to where the
+	 * problem is.
+	 *
+	 * @param text
+	 *                 The text to parse the number from.
+	 * @param pos
+	 *                 The position to start parsing at.
+	 * @param cardinal
+	 *                 Whether cardinal numbers are accepted.
+	 * @param ordinal
+	 *                 Whether ordinal numbers are accepted.
+	 * @return The number, or zero if it couldn't be parsed.
+	 */
+	long parse(CharSequence text, ParsePosition pos, boolean cardinal,
+			boolean ordinal) {
+		final int len = text.length();
+
+		int start = pos.getIndex();
+		boolean negative = false;
+
+		if (start < len && text.charAt(start) == '-') {
+			// Only numbers in digits are written like this
+			start += 1;
+
+			if (start >= len || !isDigit(text.charAt(start)))
+				return fail(pos, start);
+
+			return parseDigits(text, pos, start, true, cardinal, ordinal);
+		}
+
+		final int signEnd = wordEnd(text, start);
+		final int sign = lookup(text, start, signEnd);
+
+		if (sign >= 0 && wordKinds[sign] == SIGN) {
+			negative = true;
+
+			start = skipSpace(text, signEnd);
+			if (start == signEnd)
+				return fail(pos, start);
+		}
+
+		if (start < len && isDigit(text.charAt(start)))
+			return parseDigits(text, pos, start, negative, cardinal, ordinal);
+
+		return parseWords(text, pos, start, negative, cardinal, ordinal);
+	}
+
+	/* Parse a number written in digits, with an ordinal suffix if it is one. */
+	private static long parseDigits(CharSequence text, ParsePosition pos, int start,
+			boolean negative, boolean cardinal, boolean ordinal) {
+		final int len = text.length();
+
+		// Negated, so the smallest long fits.
+		long value = 0;
+
+		int p = start;
+		for (; p < len && isDigit(text.charAt(p)); p++) {
+			final int digit = text.charAt(p) - '0';
+
+			if (value < Long.MIN_VALUE / 10 || value * 10 < Long.MIN_VALUE + digit)
+				return fail(pos, start);
+
+			value = value * 10 - digit;
+		}
+
+		if (!negative && value == Long.MIN_VALUE)
+			return fail(pos, start);
+
+		final int end = wordEnd(text, p);
+
+		if (end != p) {
+			if (!ordinal || !matchesSuffix(text, p, end, -(value % 100)))
+				return fail(pos, p);
+		} else if (!cardinal) {
+			return fail(pos, p);
+		}
+
+		pos.setIndex(end);
+
+		return negative ? value : -value;
+	}
+
+	/* Check if some text is the ordinal suffix for a number. */
+	private static boolean matchesSuffix(CharSequence text, int start, int end,
+			long number) {
+		final String suffix = NumberUtils.ordinalSuffix(number);
+
+		if (end - start != suffix.length())
+			return false;
+
+		for (int i = 0; i < suffix.length(); i++) {
+			if (Character.toLowerCase(text.charAt(start + i)) != suffix.charAt(i))
+				return false;
+		}
+
+		return true;
+	}
+
+	/*
+	 * Parse a number written in words.
+	 *
+	 * This reads as many words as make up a number, and stops at the first one
+	 * that doesn't continue it. Scales that are out of order, or that make the
+	 * number too big, are errors instead.
+	 */
+	private long parseWords(CharSequence text, ParsePosition pos, int start,
+			boolean negative, boolean cardinal, boolean ordinal) {
+		final int len = text.length();
+
+		// The scales read so far, negated so the smallest long fits.
+		long total = 0;
+		// The part of the number after the last scale.
+		int group = 0;
+		boolean hasTens = false;
+		boolean hasOnes = false;
+
+		// The last scale read, which the next has to be smaller than.
+		long lastScale = Long.MAX_VALUE;
+		// The kind of the last word read, or -1 for none.
+		int last = -1;
+
+		// Where the last complete number ended, and its negated value.
+		int end = -1;
+		long value = 0;
+		boolean endOrdinal = false;
+
+		int p = start;
+
+		words: while (true) {
+			int q = p;
+			boolean hyphenated = false;
+
+			if (last != -1) {
+				if (last == TEN && q < len && text.charAt(q) == '-') {
+					q += 1;
+
+					hyphenated = true;
+				} else {
+					if (last == SCALE && q < len && text.charAt(q) == ',')
+						q += 1;
+
+					q = skipSpace(text, q);
+
+					if (q == p)
+						break;
+				}
+			}
+
+			final int wordEnd = wordEnd(text, q);
+			final int word = lookup(text, q, wordEnd);
+
+			if (word < 0 || (wordOrdinals[word] && !ordinal))
+				break;
+
+			final long wordValue = wordValues[word];
+
+			switch (wordKinds[word]) {
+			case UNIT:
+				if (wordValue == 0) {
+					// Zero is only ever on its own
+					if (last != -1)
+						break words;
+
+					end = wordEnd;
+					endOrdinal = wordOrdinals[word];
+
+					break words;
+				}
+
+				if (last == TEN ? wordValue >= 10 : (hasTens || hasOnes))
+					break words;
+
+				group += wordValue;
+
+				hasOnes = true;
+				hasTens |= wordValue >= 10;
+				break;
+			case TEN:
+				if (hasTens || hasOnes || hyphenated)
+					break words;
+
+				group += wordValue;
+
+				hasTens = true;
+				break;
+			case HUNDRED:
+				if (last != UNIT || group > 9 || hyphenated)
+					break words;
+
+				group *= 100;
+
+				hasOnes = false;
+				break;
+			case SCALE:
+				if (group == 0 || last == AND || hyphenated)
+					break words;
+
+				if (wordValue >= lastScale || group > Long.MAX_VALUE / wordValue)
+					return fail(pos, q);
+
+				final long part = group * wordValue;
+
+				if (total < Long.MIN_VALUE + part)
+					return fail(pos, q);
+
+				total -= part;
+				group = 0;
+
+				hasTens = false;
+				hasOnes = false;
+
+				lastScale = wordValue;
+				break;
+			case AND:
+				if (last != HUNDRED && last != SCALE)
+					break words;
+
+				last = AND;
+				p = wordEnd;
+
+				continue words;
+			default:
+				break words;
+			}
+
+			if (total < Long.MIN_VALUE + group)
+				return fail(pos, q);
+
+			last = wordKinds[word];
+			p = wordEnd;
+
+			end = wordEnd;
+			value = total - group;
+
+			if (wordOrdinals[word]) {
+				endOrdinal = true;
+
+				break;
+			}
+		}
+
+		if (end < 0)
+			return fail(pos, start);
+
+		if (!endOrdinal && !cardinal)
+			return fail(pos, end);
+
+		if (!negative) {
+			if (value == Long.MIN_VALUE)
+				return fail(pos, start);
+
+			value = -value;
+		}
+
+		pos.setIndex(end);
+
+		return value;
+	}
+
+	/* Find the word between two positions, or -1 if it isn't one. */
+	private int lookup(CharSequence text, int start, int end) {
+		if (start == end)
+			return -1;
+
+		int node = 0;
+		for (int i = start; i < end; i++) {
+			final int letter = letter(text.charAt(i));
+
+			if (letter < 0)
+				return -1;
+
+			node = children[node * LETTERS + letter];
+
+			if (node == 0)
+				return -1;
+		}
+
+		return nodeWords[node];
+	}
+
+	/* Get the trie index of a letter, or -1 if it isn't an ASCII letter. */
+	private static int letter(char ch) {
+		if (ch >= 'a' && ch <= 'z')
+			return ch - 'a';
+
+		if (ch >= 'A' && ch <= 'Z')
+			return ch - 'A';
+
+		return -1;
+	}
+
+	/* Find the end of the run of letters starting at a position. */
+	private static int wordEnd(CharSequence text, int start) {
+		int p = start;
+
+		while (p < text.length() && Character.isLetter(text.charAt(p)))
+			p += 1;
+
+		return p;
+	}
+
+	/* Find the end of the run of whitespace starting at a position. */
+	private static int skipSpace(CharSequence text, int start) {
+		int p = start;
+
+		while (p < text.length() && Character.isWhitespace(text.charAt(p)))
+			p += 1;
+
+		return p;
+	}
+
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	/* Record a failure to parse. */
+	private static long fail(ParsePosition pos, int errorIndex) {
+		pos.setErrorIndex(errorIndex);
+
+		return 0;
+	}
+}
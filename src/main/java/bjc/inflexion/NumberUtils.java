@@ -1,5 +1,11 @@
 package bjc.inflexion;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.text.ParsePosition;
+import java.util.Arrays;
+
 /**
  * A variety of functions for doing useful stuff with numbers.
  *
@@ -7,6 +13,35 @@ package bjc.inflexion;
  *
  */
 public class NumberUtils {
+	/**
+	 * The number of small numbers whose cardinals and ordinals are cached,
+	 * unless told otherwise.
+	 */
+	public static final int DEFAULT_NUMBER_CACHE_SIZE = 4096;
+
+	/*
+	 * Cardinals and ordinals for the numbers from zero up to its size, filled in
+	 * as they are asked for.
+	 *
+	 * The arrays aren't locked. Strings are immutable, so a thread either sees
+	 * a complete string or null, and at worst computes the same string again.
+	 */
+	private static final class NumberCache {
+		final String[] cardinals;
+		final String[] longOrdinals;
+		final String[] shortOrdinals;
+
+		NumberCache(final int size) {
+			cardinals = new String[size];
+			longOrdinals = new String[size];
+			shortOrdinals = new String[size];
+		}
+	}
+
+	/* The current number cache. Replaced, not cleared, when resized. */
+	private static volatile NumberCache numberCache
+			= new NumberCache(DEFAULT_NUMBER_CACHE_SIZE);
+
 	/*
 	 * @TODO 2/12/18 Ben Culkin :RomanExpansion
 	 *
@@ -14,6 +49,22 @@ public class NumberUtils {
 	 * implemented by roman()).
 	 */
 
+	/* The values of roman numerals, from largest to smallest. */
+	private static final long[] romanValues = new long[] {
+			1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1
+	};
+
+	/* The roman numerals, in the same order as romanValues. */
+	private static final String[] romanNumerals = new String[] {
+			"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"
+	};
+
+	/* Whether classic numerals use each numeral, or only modern ones do. */
+	private static final boolean[] romanClassic = new boolean[] {
+			true, false, true, false, true, false, true, false, true, false, true,
+			false, true
+	};
+
 	/**
 	 * Convert a number into a roman numeral.
 	 *
@@ -25,111 +76,212 @@ public class NumberUtils {
 	 * @return The number as a roman numeral.
 	 */
 	public static String toRoman(long number, boolean classic) {
-		StringBuilder work = new StringBuilder();
-
-		long currNumber = number;
+		return toRoman(number, classic, new StringBuilder()).toString();
+	}
 
-		if (currNumber == 0) {
-			return "N";
+	/**
+	 * Convert a number into a roman numeral, adding it to a buffer.
+	 *
+	 * @param number
+	 *                The number to convert.
+	 * @param classic
+	 *                Whether to use classic roman numerals (use IIII instead of IV,
+	 *                and such).
+	 * @param sb
+	 *                The buffer to add the numeral to.
+	 * @return The buffer.
+	 */
+	public static StringBuilder toRoman(long number, boolean classic,
+			StringBuilder sb) {
+		try {
+			appendRoman(number, classic, sb);
+		} catch (IOException ioex) {
+			// StringBuilder doesn't throw this
+			throw new UncheckedIOException(ioex);
 		}
 
-		if (currNumber < 0) {
-			currNumber *= -1;
+		return sb;
+	}
 
-			work.append("-");
-		}
+	/**
+	 * Convert a number into a roman numeral, writing it to a destination.
+	 *
+	 * @param number
+	 *                The number to convert.
+	 * @param classic
+	 *                Whether to use classic roman numerals (use IIII instead of IV,
+	 *                and such).
+	 * @param out
+	 *                The destination to write the numeral to.
+	 * @throws IOException
+	 *                     If the destination can't be written to.
+	 */
+	public static void toRoman(long number, boolean classic, Appendable out)
+			throws IOException {
+		appendRoman(number, classic, out);
+	}
 
-		if (currNumber >= 1000) {
-			int numM = (int) (currNumber / 1000);
-			currNumber = currNumber % 1000;
+	/**
+	 * Convert a batch of numbers into roman numerals, adding them to a buffer.
+	 *
+	 * @param numbers
+	 *                  The numbers to convert.
+	 * @param classic
+	 *                  Whether to use classic roman numerals (use IIII instead of
+	 *                  IV, and such).
+	 * @param separator
+	 *                  The text to put between numerals.
+	 * @param sb
+	 *                  The buffer to add the numerals to.
+	 * @return The buffer.
+	 */
+	public static StringBuilder toRoman(long[] numbers, boolean classic,
+			String separator, StringBuilder sb) {
+		for (int i = 0; i < numbers.length; i++) {
+			if (i > 0)
+				sb.append(separator);
 
-			for (int i = 0; i < numM; i++) {
-				work.append("M");
-			}
+			toRoman(numbers[i], classic, sb);
 		}
 
-		if (currNumber >= 900 && !classic) {
-			currNumber = currNumber % 900;
+		return sb;
+	}
+
+	/* Write out a roman numeral. */
+	private static void appendRoman(long number, boolean classic, Appendable out)
+			throws IOException {
+		if (number == 0) {
+			out.append('N');
 
-			work.append("CM");
+			return;
 		}
 
-		if (currNumber >= 500) {
-			currNumber = currNumber % 500;
+		long currNumber = number;
 
-			work.append("D");
-		}
+		if (currNumber < 0) {
+			out.append('-');
 
-		if (currNumber >= 400 && !classic) {
-			currNumber = currNumber % 400;
+			// @NOTE Long.MIN_VALUE can't be negated, so has no numerals.
+			if (currNumber == Long.MIN_VALUE)
+				return;
 
-			work.append("CD");
+			currNumber = -currNumber;
 		}
 
-		if (currNumber >= 100) {
-			int numC = (int) (currNumber / 100);
-			currNumber = currNumber % 100;
+		for (int i = 0; i < romanValues.length && currNumber > 0; i++) {
+			if (classic && !romanClassic[i])
+				continue;
+
+			final long value = romanValues[i];
+			final String numeral = romanNumerals[i];
 
-			for (int i = 0; i < numC; i++) {
-				work.append("C");
+			while (currNumber >= value) {
+				out.append(numeral);
+
+				currNumber -= value;
 			}
 		}
+	}
 
-		if (currNumber >= 90 && !classic) {
-			currNumber = currNumber % 90;
+	/**
+	 * Convert a roman numeral into a number.
+	 *
+	 * Both classic (IIII) and modern (IV) numerals are accepted, in either case,
+	 * as is 'N' for zero and a leading '-' for negative numbers. The numeral has
+	 * to be written the way {@link #toRoman(long, boolean)} would write it in one
+	 * of those styles.
+	 *
+	 * @param numeral
+	 *                The numeral to convert.
+	 * @return The value of the numeral.
+	 *
+	 * @throws NumberFormatException
+	 *                               If the numeral isn't valid.
+	 */
+	public static long fromRoman(CharSequence numeral) {
+		final int len = numeral.length();
 
-			work.append("XC");
-		}
+		if (len == 1 && Character.toUpperCase(numeral.charAt(0)) == 'N')
+			return 0;
 
-		if (currNumber >= 50) {
-			currNumber = currNumber % 50;
+		final int start = (len > 0 && numeral.charAt(0) == '-') ? 1 : 0;
 
-			work.append("L");
-		}
+		if (start == len)
+			throw new NumberFormatException(
+					String.format("'%s' is not a roman numeral", numeral));
 
-		if (currNumber >= 40 && !classic) {
-			currNumber = currNumber % 40;
+		long value = 0;
 
-			work.append("XL");
-		}
+		for (int i = start; i < len; i++) {
+			final int digit = romanDigit(numeral.charAt(i));
 
-		if (currNumber >= 10) {
-			int numX = (int) (currNumber / 10);
-			currNumber = currNumber % 10;
+			if (digit < 0)
+				throw new NumberFormatException(String.format(
+						"'%c' at position %d of '%s' is not a roman numeral",
+						numeral.charAt(i), i, numeral));
 
-			for (int i = 0; i < numX; i++) {
-				work.append("X");
+			if (i + 1 < len && romanDigit(numeral.charAt(i + 1)) > digit) {
+				value -= digit;
+			} else {
+				value += digit;
 			}
 		}
 
-		if (currNumber >= 9 && !classic) {
-			currNumber = currNumber % 9;
-
-			work.append("IX");
-		}
+		// Anything that doesn't read back the same isn't a proper numeral.
+		if (value <= 0 || !(matchesRoman(numeral, start, value, false)
+				|| matchesRoman(numeral, start, value, true)))
+			throw new NumberFormatException(
+					String.format("'%s' is not a well-formed roman numeral", numeral));
 
-		if (currNumber >= 5) {
-			currNumber = currNumber % 5;
+		return start == 1 ? -value : value;
+	}
 
-			work.append("V");
+	/* Get the value of a single roman numeral, or -1 if it isn't one. */
+	private static int romanDigit(char ch) {
+		switch (Character.toUpperCase(ch)) {
+		case 'I':
+			return 1;
+		case 'V':
+			return 5;
+		case 'X':
+			return 10;
+		case 'L':
+			return 50;
+		case 'C':
+			return 100;
+		case 'D':
+			return 500;
+		case 'M':
+			return 1000;
+		default:
+			return -1;
 		}
+	}
 
-		if (currNumber >= 4 && !classic) {
-			currNumber = currNumber % 4;
+	/* Check if a numeral is what appendRoman would write for a value. */
+	private static boolean matchesRoman(CharSequence numeral, int start, long value,
+			boolean classic) {
+		int pos = start;
+		long currNumber = value;
 
-			work.append("IV");
-		}
+		for (int i = 0; i < romanValues.length && currNumber > 0; i++) {
+			if (classic && !romanClassic[i])
+				continue;
 
-		if (currNumber >= 1) {
-			int numI = (int) (currNumber / 1);
-			currNumber = currNumber % 1;
+			final String expected = romanNumerals[i];
 
-			for (int i = 0; i < numI; i++) {
-				work.append("I");
+			while (currNumber >= romanValues[i]) {
+				for (int j = 0; j < expected.length(); j++, pos++) {
+					if (pos >= numeral.length() || Character
+							.toUpperCase(numeral.charAt(pos)) != expected.charAt(j))
+						return false;
+				}
+
+				currNumber -= romanValues[i];
 			}
 		}
 
-		return work.toString();
+		return pos == numeral.length();
 	}
 
 	private static String[] summaryNums = new String[] {
@@ -175,6 +327,36 @@ public class NumberUtils {
 		return "many";
 	}
 
+	/**
+	 * Set how many small numbers have their cardinals and ordinals cached.
+	 *
+	 * Numbers from zero up to (but not including) the size are cached. Each
+	 * cached number holds up to three strings, so this bounds the memory the
+	 * cache can use. Resizing the cache empties it.
+	 *
+	 * @param size
+	 *             The number of numbers to cache, or zero to not cache any.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If the size is negative.
+	 */
+	public static void setNumberCacheSize(int size) {
+		if (size < 0)
+			throw new IllegalArgumentException(
+					"Number cache size must not be negative, not " + size);
+
+		numberCache = new NumberCache(size);
+	}
+
+	/**
+	 * Get how many small numbers have their cardinals and ordinals cached.
+	 *
+	 * @return The number of numbers that are cached.
+	 */
+	public static int getNumberCacheSize() {
+		return numberCache.cardinals.length;
+	}
+
 	/**
 	 * Convert a number into a cardinal number, up to a threshold.
 	 *
@@ -202,12 +384,33 @@ public class NumberUtils {
 		return toCardinal(number, null);
 	}
 
-	private static String[] cardinals = new String[] {
+	private static final String[] cardinals = new String[] {
 			"zero", "one", "two", "three", "four", "five", "six", "seven", "eight",
 			"nine", "ten", "eleven", "twelve", "thirteen", "fourteen", "fifteen",
 			"sixteen", "seventeen", "eighteen", "nineteen", "twenty",
 	};
 
+	/* The names of multiples of ten, indexed by the tens digit. */
+	private static final String[] cardinalTens = new String[] {
+			null, null, "twenty", "thirty", "forty", "fifty", "sixty", "seventy",
+			"eighty", "ninety"
+	};
+
+	/* The name of a hundred. */
+	private static final String hundredName = " hundred";
+
+	/* The values of each named scale, from largest to smallest. */
+	private static final long[] scaleValues = new long[] {
+			1_000_000_000_000_000_000L, 1_000_000_000_000_000L, 1_000_000_000_000L,
+			1_000_000_000L, 1_000_000L, 1_000L
+	};
+
+	/* The names of each scale, in the same order as scaleValues. */
+	private static final String[] scaleNames = new String[] {
+			" quintillion", " quadrillion", " trillion", " billion", " million",
+			" thousand"
+	};
+
 	/**
 	 * Convert a number into a cardinal number.
 	 *
@@ -218,87 +421,174 @@ public class NumberUtils {
 	 * @return The number as a cardinal.
 	 */
 	public static String toCardinal(long number, CardinalState custom) {
-		if (custom != null) {
-			String res = custom.handleCustom(number);
+		if (custom == null) {
+			final String[] cache = numberCache.cardinals;
 
-			if (res != null)
-				return res;
-		}
+			if (number >= 0 && number < cache.length) {
+				String res = cache[(int) number];
 
-		if (number < 0)
-			return "negative " + toCardinal(number * -1, custom);
-
-		if (number <= 20)
-			return cardinals[(int) number];
-
-		if (number < 100) {
-			if (number % 10 == 0) {
-				switch ((int) number) {
-				case 30:
-					return "thirty";
-				case 40:
-					return "forty";
-				case 50:
-					return "fifty";
-				case 60:
-					return "sixty";
-				case 70:
-					return "seventy";
-				case 80:
-					return "eighty";
-				case 90:
-					return "ninety";
-				default:
-					/*
-					 * Shouldn't happen.
-					 */
-					assert (false);
+				if (res == null) {
+					res = toCardinal(number, null, new StringBuilder()).toString();
+
+					cache[(int) number] = res;
 				}
+
+				return res;
 			}
+		}
+
+		return toCardinal(number, custom, new StringBuilder()).toString();
+	}
+
+	/**
+	 * Convert a number into a cardinal number, adding it to a buffer.
+	 *
+	 * @param number
+	 *               The number to convert to a cardinal.
+	 * @param custom
+	 *               The customizations to use, or null for none.
+	 * @param sb
+	 *               The buffer to add the cardinal to.
+	 * @return The buffer.
+	 */
+	public static StringBuilder toCardinal(long number, CardinalState custom,
+			StringBuilder sb) {
+		try {
+			appendCardinal(number, custom, sb);
+		} catch (IOException ioex) {
+			// StringBuilder doesn't throw this
+			throw new UncheckedIOException(ioex);
+		}
 
-			long numTens = number / 10;
-			long numOnes = number % 10;
+		return sb;
+	}
 
-			return toCardinal(numTens, custom) + "-" + toCardinal(numOnes, custom);
+	/**
+	 * Convert a number into a cardinal number, writing it to a destination.
+	 *
+	 * @param number
+	 *               The number to convert to a cardinal.
+	 * @param custom
+	 *               The customizations to use, or null for none.
+	 * @param out
+	 *               The destination to write the cardinal to.
+	 * @throws IOException
+	 *                     If the destination can't be written to.
+	 */
+	public static void toCardinal(long number, CardinalState custom, Appendable out)
+			throws IOException {
+		appendCardinal(number, custom, out);
+	}
+
+	/*
+	 * Write out a cardinal.
+	 *
+	 * The customizations are checked for the whole number, then for each part of
+	 * it as it is written out: the count of each scale, what is left after each
+	 * scale, the count of hundreds and the ones.
+	 */
+	private static void appendCardinal(long number, CardinalState custom,
+			Appendable out) throws IOException {
+		// Small numbers have their customizations checked by appendHundreds
+		if ((number < 0 || number >= 1000) && appendCustom(number, custom, out))
+			return;
+
+		long rem = number;
+
+		if (rem < 0) {
+			out.append("negative ");
+
+			if (rem == Long.MIN_VALUE) {
+				// This can't be negated, so split off the top scale first.
+				appendHundreds((int) -(rem / scaleValues[0]), custom, out);
+				out.append(scaleNames[0]).append(", ");
+
+				rem = -(rem % scaleValues[0]);
+			} else {
+				rem = -rem;
+			}
+
+			if (rem >= 1000 && appendCustom(rem, custom, out))
+				return;
 		}
 
-		if (number < 1000) {
-			long numHundreds = number / 100;
-			long rest = number % 100;
+		for (int i = 0; i < scaleValues.length && rem >= 1000; i++) {
+			final long scale = scaleValues[i];
+
+			if (rem < scale)
+				continue;
 
-			return toCardinal(numHundreds, custom) + " hundred and "
-					+ toCardinal(rest, custom);
+			appendHundreds((int) (rem / scale), custom, out);
+			out.append(scaleNames[i]);
+
+			rem = rem % scale;
+
+			if (rem == 0)
+				return;
+
+			out.append(", ");
+
+			if (rem >= 1000 && appendCustom(rem, custom, out))
+				return;
 		}
 
-		long MILLION = (long) (Math.pow(10, 6));
-		if (number < MILLION) {
-			long numThousands = number / 1000;
-			long rest = number % 1000;
+		appendHundreds((int) rem, custom, out);
+	}
+
+	/* Write out a cardinal between zero and 999. */
+	private static void appendHundreds(int number, CardinalState custom,
+			Appendable out) throws IOException {
+		if (appendCustom(number, custom, out))
+			return;
+
+		int rem = number;
+
+		if (rem >= 100) {
+			if (!appendCustom(rem / 100, custom, out))
+				out.append(cardinals[rem / 100]);
 
-			return toCardinal(numThousands, custom) + " thousand, "
-					+ toCardinal(rest, custom);
+			out.append(hundredName);
+
+			rem = rem % 100;
+			if (rem == 0)
+				return;
+
+			out.append(" and ");
+
+			if (appendCustom(rem, custom, out))
+				return;
 		}
 
-		long BILLION = (long) (Math.pow(10, 9));
-		if (number < BILLION) {
-			long numMillions = number / MILLION;
-			long rest = number % MILLION;
+		if (rem <= 20) {
+			out.append(cardinals[rem]);
 
-			return toCardinal(numMillions, custom) + " million, "
-					+ toCardinal(rest, custom);
+			return;
 		}
 
-		long TRILLION = (long) (Math.pow(10, 12));
-		if (number < TRILLION) {
-			long numBillions = number / BILLION;
-			long rest = number % BILLION;
+		out.append(cardinalTens[rem / 10]);
 
-			return toCardinal(numBillions, custom) + " billion, "
-					+ toCardinal(rest, custom);
+		if (rem % 10 != 0) {
+			out.append('-');
+
+			if (!appendCustom(rem % 10, custom, out))
+				out.append(cardinals[rem % 10]);
 		}
+	}
+
+	/* Write out a custom cardinal, if there is one. */
+	private static boolean appendCustom(long number, CardinalState custom,
+			Appendable out) throws IOException {
+		if (custom == null)
+			return false;
+
+		final String res = custom.handleCustom(number);
+
+		if (res == null)
+			return false;
+
+		out.append(res);
 
-		throw new IllegalArgumentException(
-				"Numbers greater than or equal to 1 trillion are not supported yet.");
+		return true;
 	}
 
 	/**
@@ -355,85 +645,42 @@ public class NumberUtils {
 	 * @return The number as an ordinal.
 	 */
 	public static String toOrdinal(long number, boolean longForm) {
+		final NumberCache current = numberCache;
+		final String[] cache = longForm ? current.longOrdinals : current.shortOrdinals;
+
+		if (number >= 0 && number < cache.length) {
+			String res = cache[(int) number];
+
+			if (res == null) {
+				res = buildOrdinal(number, longForm);
+
+				cache[(int) number] = res;
+			}
+
+			return res;
+		}
+
+		return buildOrdinal(number, longForm);
+	}
+
+	/* Convert a number into an ordinal, without using the cache. */
+	private static String buildOrdinal(long number, boolean longForm) {
+		if (number == Long.MIN_VALUE) {
+			// Can't be negated, but is too big for a long-form ordinal anyway.
+			return "minus " + Long.toString(number).substring(1) + "th";
+		}
+
 		if (number < 0) {
-			return "minus " + toOrdinal(number, longForm);
+			return "minus " + toOrdinal(-number, longForm);
 		}
 
 		if (longForm) {
-			if (number < 20) {
-				switch ((int) number) {
-				case 0:
-					return "zeroth";
-				case 1:
-					return "first";
-				case 2:
-					return "second";
-				case 3:
-					return "third";
-				case 4:
-					return "fourth";
-				case 5:
-					return "fifth";
-				case 6:
-					return "sixth";
-				case 7:
-					return "seventh";
-				case 8:
-					return "eighth";
-				case 9:
-					return "ninth";
-				case 10:
-					return "tenth";
-				case 11:
-					return "eleventh";
-				case 12:
-					return "twelfth";
-				case 13:
-					return "thirteenth";
-				case 14:
-					return "fourteenth";
-				case 15:
-					return "fifteenth";
-				case 16:
-					return "sixteenth";
-				case 17:
-					return "seventeenth";
-				case 18:
-					return "eighteenth";
-				case 19:
-					return "nineteenth";
-				default:
-					/*
-					 * Shouldn't happen.
-					 */
-					assert (false);
-				}
-			}
+			if (number < 20)
+				return ordinals[(int) number];
 
 			if (number < 100) {
-				if (number % 10 == 0) {
-					switch ((int) number) {
-					case 20:
-						return "twentieth";
-					case 30:
-						return "thirtieth";
-					case 40:
-						return "fortieth";
-					case 50:
-						return "fiftieth";
-					case 60:
-						return "sixtieth";
-					case 70:
-						return "seventieth";
-					case 80:
-						return "eightieth";
-					case 90:
-						return "ninetieth";
-					default:
-						throw new IllegalArgumentException(
-								String.format("Illegal number %d", number));
-					}
-				}
+				if (number % 10 == 0)
+					return ordinalTens[(int) number / 10];
 
 				long numPostfix = number % 10;
 				return toCardinal(number - numPostfix) + "-"
@@ -441,27 +688,137 @@ public class NumberUtils {
 			}
 		}
 
-		long procNum = number % 100;
-		long tens = procNum / 10;
-		long ones = procNum % 10;
+		return Long.toString(number) + ordinalSuffix(number);
+	}
+
+	/* Get the suffix of the short-form ordinal of a non-negative number. */
+	static String ordinalSuffix(long number) {
+		final long procNum = number % 100;
 
-		if (tens == 1) {
-			return Long.toString(number) + "th";
-		}
+		if (procNum / 10 == 1)
+			return "th";
 
-		switch ((int) ones) {
+		switch ((int) (procNum % 10)) {
 		case 1:
-			return Long.toString(number) + "st";
+			return "st";
 		case 2:
-			return Long.toString(number) + "nd";
+			return "nd";
 		case 3:
-			return Long.toString(number) + "rd";
+			return "rd";
 		default:
-			return Long.toString(number) + "th";
+			return "th";
 		}
 	}
 
+	/* The ordinals of the numbers from zero to nineteen. */
+	private static final String[] ordinals = new String[] {
+			"zeroth", "first", "second", "third", "fourth", "fifth", "sixth",
+			"seventh", "eighth", "ninth", "tenth", "eleventh", "twelfth",
+			"thirteenth", "fourteenth", "fifteenth", "sixteenth", "seventeenth",
+			"eighteenth", "nineteenth"
+	};
+
+	/* The ordinals of multiples of ten, indexed by the tens digit. */
+	private static final String[] ordinalTens = new String[] {
+			null, null, "twentieth", "thirtieth", "fortieth", "fiftieth",
+			"sixtieth", "seventieth", "eightieth", "ninetieth"
+	};
+
+	/* Parser for numbers, using the same words they are written with. */
+	private static final NumberParser numberParser = new NumberParser(cardinals,
+			cardinalTens, ordinals, ordinalTens, hundredName, scaleValues,
+			scaleNames);
+
+	/**
+	 * Parse a cardinal or ordinal number out of some text.
+	 *
+	 * This reads anything {@link #toCardinal(long)} or
+	 * {@link #toOrdinal(long, boolean)} write, starting at the index of the
+	 * position and stopping at the end of the number, so it can be used to pick
+	 * numbers out of a longer piece of text. It is also a bit looser than they
+	 * are: case doesn't matter, 'and' and commas are optional, tens and ones can
+	 * be split by a space instead of a hyphen, and the last word of a number in
+	 * words can be any ordinal ('one hundred and first', 'two thousandth').
+	 *
+	 * Nothing is allocated, so the same position can be reused to parse lots of
+	 * numbers cheaply.
+	 *
+	 * @param text
+	 *             The text to parse the number from.
+	 * @param pos
+	 *             The position to start parsing at. On success, its index is
+	 *             moved past the number. On failure, its index is left alone and
+	 *             its error index is set to where parsing failed.
+	 * @return The number, or zero if there wasn't one.
+	 */
+	public static long parseNumber(CharSequence text, ParsePosition pos) {
+		return numberParser.parse(text, pos, true, true);
+	}
+
+	/**
+	 * Convert a cardinal number back into a number.
+	 *
+	 * @param text
+	 *             The cardinal to convert, in words or digits.
+	 * @return The value of the cardinal.
+	 *
+	 * @throws NumberFormatException
+	 *                               If the text isn't a cardinal number.
+	 *
+	 * @see #parseNumber(CharSequence, ParsePosition)
+	 */
+	public static long fromCardinal(CharSequence text) {
+		return parseWhole(text, true, false, "cardinal");
+	}
+
+	/**
+	 * Convert an ordinal number back into a number.
+	 *
+	 * @param text
+	 *             The ordinal to convert, in words or digits.
+	 * @return The value of the ordinal.
+	 *
+	 * @throws NumberFormatException
+	 *                               If the text isn't an ordinal number.
+	 *
+	 * @see #parseNumber(CharSequence, ParsePosition)
+	 */
+	public static long fromOrdinal(CharSequence text) {
+		return parseWhole(text, false, true, "ordinal");
+	}
+
+	/* Parse some text that has to be a single number. */
+	private static long parseWhole(CharSequence text, boolean cardinal,
+			boolean ordinal, String kind) {
+		final ParsePosition pos = new ParsePosition(0);
+		final long value = numberParser.parse(text, pos, cardinal, ordinal);
+
+		if (pos.getErrorIndex() >= 0)
+			throw new NumberFormatException(String.format(
+					"'%s' is not a valid %s number (at position %d)", text, kind,
+					pos.getErrorIndex()));
+
+		if (pos.getIndex() != text.length())
+			throw new NumberFormatException(String.format(
+					"'%s' has trailing text after a %s number (at position %d)", text,
+					kind, pos.getIndex()));
+
+		return value;
+	}
+
 	private static char[] radixChars = new char[62];
+
+	/* The tens and ones digits of the numbers from 0 to 99. */
+	private static final char[] digitTens = new char[100];
+	private static final char[] digitOnes = new char[100];
+
+	static {
+		for (int i = 0; i < 100; i++) {
+			digitTens[i] = (char) ('0' + i / 10);
+			digitOnes[i] = (char) ('0' + i % 10);
+		}
+	}
+
 	static {
 		int idx = 0;
 
@@ -505,75 +862,179 @@ public class NumberUtils {
 	 */
 	public static String toCommaString(long val, int mincols, char padchar,
 			int commaInterval, char commaChar, boolean signed, int radix) {
+		return new String(
+				formatComma(val, mincols, padchar, commaInterval, commaChar, signed, radix));
+	}
+
+	/**
+	 * Convert a number into a commafied string, adding it to a buffer.
+	 *
+	 * @param val
+	 *                      The number to convert.
+	 * @param mincols
+	 *                      The minimum number of columns to use.
+	 * @param padchar
+	 *                      The padding char to use.
+	 * @param commaInterval
+	 *                      The interval to place commas at.
+	 * @param commaChar
+	 *                      The character to use as a comma
+	 * @param signed
+	 *                      Whether or not to always display a sign
+	 * @param radix
+	 *                      The radix to use
+	 * @param sb
+	 *                      The buffer to add the string to.
+	 * @return The buffer.
+	 */
+	public static StringBuilder toCommaString(long val, int mincols, char padchar,
+			int commaInterval, char commaChar, boolean signed, int radix,
+			StringBuilder sb) {
+		return sb.append(
+				formatComma(val, mincols, padchar, commaInterval, commaChar, signed, radix));
+	}
+
+	/**
+	 * Convert a number into a commafied string, writing it to a destination.
+	 *
+	 * @param val
+	 *                      The number to convert.
+	 * @param mincols
+	 *                      The minimum number of columns to use.
+	 * @param padchar
+	 *                      The padding char to use.
+	 * @param commaInterval
+	 *                      The interval to place commas at.
+	 * @param commaChar
+	 *                      The character to use as a comma
+	 * @param signed
+	 *                      Whether or not to always display a sign
+	 * @param radix
+	 *                      The radix to use
+	 * @param out
+	 *                      The destination to write the string to.
+	 * @throws IOException
+	 *                     If the destination can't be written to.
+	 */
+	public static void toCommaString(long val, int mincols, char padchar,
+			int commaInterval, char commaChar, boolean signed, int radix,
+			Appendable out) throws IOException {
+		final char[] buf
+				= formatComma(val, mincols, padchar, commaInterval, commaChar, signed, radix);
+
+		if (out instanceof StringBuilder) {
+			((StringBuilder) out).append(buf);
+		} else {
+			out.append(CharBuffer.wrap(buf));
+		}
+	}
+
+	/*
+	 * Format a commafied number.
+	 *
+	 * The size of the result is worked out first, and then the digits, commas,
+	 * sign and padding are written into it from the right.
+	 *
+	 * @TODO
+	 *
+	 * Should we have some way to specify how to pad?
+	 *
+	 * By this, I mean specify padding direction (left, right, balanced...)
+	 */
+	private static char[] formatComma(long val, int mincols, char padchar,
+			int commaInterval, char commaChar, boolean signed, int radix) {
 		if (radix > radixChars.length) {
 			throw new IllegalArgumentException(
 					String.format("Radix %d is larger than largest supported radix %d",
 							radix, radixChars.length));
+		} else if (radix < 2) {
+			throw new IllegalArgumentException(
+					String.format("Radix %d is smaller than smallest supported radix 2",
+							radix));
 		}
 
-		StringBuilder work = new StringBuilder();
+		// A negative interval groups the same as a positive one.
+		final int group = Math.abs(commaInterval);
 
-		boolean isNeg = false;
-		long currVal = val;
-		if (currVal < 0) {
-			isNeg = true;
-			currVal *= -1;
+		// Work with the negated value, so that Long.MIN_VALUE can be handled.
+		long currVal = val < 0 ? val : -val;
+
+		int numDigits = 1;
+		for (long rest = currVal / radix; rest != 0; rest /= radix) {
+			numDigits += 1;
 		}
 
-		if (currVal == 0) {
-			work.append(radixChars[0]);
-		} else {
-			int valCounter = 0;
+		final int numCommas = group > 0 ? (numDigits - 1) / group : 0;
+		final boolean hasSign = val < 0 || signed;
+
+		final int len = numDigits + numCommas + (hasSign ? 1 : 0);
+
+		final char[] buf = new char[Math.max(len, mincols)];
 
-			while (currVal != 0) {
-				valCounter += 1;
+		int pos = buf.length;
+		int valCounter = 0;
 
-				int radDigit = (int) (currVal % radix);
-				work.append(radixChars[radDigit]);
-				currVal = currVal / radix;
+		if (radix == 10) {
+			// Do two digits at a time.
+			while (currVal <= -100) {
+				final long next = currVal / 100;
+				final int digits = (int) (next * 100 - currVal);
 
-				if (commaInterval != 0 && valCounter % commaInterval == 0 && currVal != 0)
-					work.append(commaChar);
+				currVal = next;
+
+				pos = putDigit(buf, pos, digitOnes[digits], valCounter++, group,
+						commaChar);
+				pos = putDigit(buf, pos, digitTens[digits], valCounter++, group,
+						commaChar);
 			}
-		}
 
-		if (isNeg)
-			work.append("-");
-		else if (signed)
-			work.append("+");
-
-		work.reverse();
-
-		/*
-		 * @TODO
-		 *
-		 * Should we have some way to specify how to pad?
-		 *
-		 * By this, I mean specify padding direction (left, right, balanced...)
-		 */
-		StringBuilder pad = new StringBuilder();
-
-		if (work.length() < mincols) {
-			@SuppressWarnings("unused")
-			int padCount = 0;
-			for (int i = work.length(); i < mincols; i++) {
-				// @NOTE 9/6/18 :CommaPad
-				//
-				// I have no idea if this is the intended
-				// behavior, or if something is wrong with the
-				// example case in the menu
-				// if (commaInterval != 0 && padCount != 0) {
-				// if (Character.isDigit(padchar) && padCount % commaInterval == 0)
-				// pad.append(commaChar);
-				// else
-				pad.append(padchar);
-				// }
-
-				padCount++;
+			final int digits = (int) -currVal;
+
+			pos = putDigit(buf, pos, digitOnes[digits], valCounter++, group,
+					commaChar);
+
+			if (digits >= 10) {
+				pos = putDigit(buf, pos, digitTens[digits], valCounter++, group,
+						commaChar);
 			}
+		} else {
+			do {
+				final long next = currVal / radix;
+				final int digit = (int) (next * radix - currVal);
+
+				currVal = next;
+
+				pos = putDigit(buf, pos, radixChars[digit], valCounter++, group,
+						commaChar);
+			} while (currVal != 0);
 		}
 
-		return pad.toString() + work.toString();
+		if (val < 0)
+			buf[--pos] = '-';
+		else if (signed)
+			buf[--pos] = '+';
+
+		// @NOTE 9/6/18 :CommaPad
+		//
+		// I have no idea if this is the intended behavior, or if something is
+		// wrong with the example case in the menu. Commas aren't placed in the
+		// padding, even if it is digits.
+		Arrays.fill(buf, 0, pos, padchar);
+
+		return buf;
+	}
+
+	/* Put a digit before the given position, with a comma after it if needed. */
+	private static int putDigit(char[] buf, int pos, char digit, int valCounter,
+			int group, char commaChar) {
+		int newPos = pos;
+
+		if (group > 0 && valCounter > 0 && valCounter % group == 0)
+			buf[--newPos] = commaChar;
+
+		buf[--newPos] = digit;
+
+		return newPos;
 	}
 
 	/**
@@ -120,7 +120,27 @@ public class NumericOptions extends Options {
 	 *                    The current list of parsing errors.
 	 */
 	public NumericOptions(String options, int curPos, boolean startFold, List<String> parseErrors) {
-		if (options.equals(""))
+		this(options, 0, options.length(), curPos, startFold, parseErrors);
+	}
+
+	/**
+	 * Create a new set of numeric options from part of a string.
+	 *
+	 * @param source
+	 *                    The string containing the options.
+	 * @param start
+	 *                    Where the options start.
+	 * @param end
+	 *                    Where the options end.
+	 * @param curPos
+	 *                    The current position into the string.
+	 * @param startFold Whether to start with folding on
+	 * @param parseErrors
+	 *                    The current list of parsing errors.
+	 */
+	public NumericOptions(CharSequence source, int start, int end, int curPos,
+			boolean startFold, List<String> parseErrors) {
+		if (start == end)
 			return;
 
 		char prevOption = ' ';
@@ -128,8 +148,8 @@ public class NumericOptions extends Options {
 
 		boolean doingCaseFolding = startFold;
 
-		for (int i = 0; i < options.length(); i++) {
-			char ci = options.charAt(i);
+		for (int i = 0; i < end - start; i++) {
+			char ci = source.charAt(start + i);
 
 			if (Character.isDigit(ci) || ci == '-' || ci == '+') {
 				currNum.append(ci);
@@ -191,7 +211,7 @@ public class NumericOptions extends Options {
 
 		if (currNum.length() > 0) {
 			parseNumericParam(curPos, parseErrors, prevOption, currNum,
-					options.length() - 1);
+					end - start - 1);
 
 			currNum = new StringBuilder();
 		}
@@ -7,6 +7,10 @@ import java.util.Iterator;
 /**
  * An iterator that supports queuing elements after/before the current iterator;
  *
+ * This is for when what to splice in isn't known until iterating. Sequences
+ * that are known up front, like those in an {@link InflectionString}, are
+ * cheaper to flatten out once.
+ *
  * @author bjculkin
  *
  * @param <E>
@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The slots the variables of an inflection string are stored in while it is
+ * rendered, so they don't have to be looked up by name.
+ *
+ * Positional variables ($1, $2, ...) get the slot matching their position, so
+ * an array of arguments can be used for the slots as is. Any other variables
+ * get slots after those.
+ *
+ * @author bjculkin
+ */
+final class VariableSlots {
+	/* Marks a slot that has no value. */
+	static final Object UNBOUND = new Object();
+
+	/* The name of the variable in each slot, or null for unused slots. */
+	private final String[] names;
+
+	/* The number of slots for positional variables. */
+	private final int numPositional;
+
+	/**
+	 * Assign slots to variables.
+	 *
+	 * @param varNames
+	 *                 The names of the variables.
+	 */
+	VariableSlots(List<String> varNames) {
+		int maxPosition = -1;
+		for (String name : varNames) {
+			maxPosition = Math.max(maxPosition, position(name));
+		}
+
+		numPositional = maxPosition + 1;
+
+		final Map<String, Integer> slots = new HashMap<>();
+
+		int next = numPositional;
+		for (String name : varNames) {
+			if (position(name) < 0 && !slots.containsKey(name)) {
+				slots.put(name, next);
+
+				next += 1;
+			}
+		}
+
+		names = new String[next];
+		for (String name : varNames) {
+			final int pos = position(name);
+
+			names[pos >= 0 ? pos : slots.get(name)] = name;
+		}
+	}
+
+	/* Get the position of a positional variable, or -1 if it isn't one. */
+	private static int position(String name) {
+		if (name.isEmpty() || name.length() > 9 || name.charAt(0) == '0')
+			return -1;
+
+		int pos = 0;
+		for (int i = 0; i < name.length(); i++) {
+			final char ch = name.charAt(i);
+
+			if (ch < '0' || ch > '9')
+				return -1;
+
+			pos = pos * 10 + (ch - '0');
+		}
+
+		return pos - 1;
+	}
+
+	/**
+	 * Get the number of slots.
+	 *
+	 * @return The number of slots.
+	 */
+	int size() {
+		return names.length;
+	}
+
+	/**
+	 * Get the slot for a variable.
+	 *
+	 * @param name
+	 *             The name of the variable.
+	 * @return The slot for the variable, or -1 if it isn't used.
+	 */
+	int slotOf(String name) {
+		final int pos = position(name);
+
+		if (pos >= 0)
+			return pos < numPositional && name.equals(names[pos]) ? pos : -1;
+
+		for (int i = numPositional; i < names.length; i++) {
+			if (names[i].equals(name))
+				return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Fill the slots from positional arguments.
+	 *
+	 * @param args
+	 *             The arguments, the first of which is $1.
+	 * @return The values of the slots. May be the arguments themselves.
+	 */
+	Object[] fromArguments(Object[] args) {
+		if (numPositional == names.length)
+			return args;
+
+		final Object[] values = newValues();
+		System.arraycopy(args, 0, values, 0, Math.min(args.length, numPositional));
+
+		return values;
+	}
+
+	/**
+	 * Fill the slots from named variables.
+	 *
+	 * @param vars
+	 *             The variables, by name.
+	 * @return The values of the slots.
+	 */
+	Object[] fromMap(Map<String, Object> vars) {
+		final Object[] values = newValues();
+
+		for (int i = 0; i < names.length; i++) {
+			if (names[i] != null && vars.containsKey(names[i]))
+				values[i] = vars.get(names[i]);
+		}
+
+		return values;
+	}
+
+	/**
+	 * Create a set of empty slots.
+	 *
+	 * @return A set of slots, with nothing bound.
+	 */
+	Object[] newValues() {
+		final Object[] values = new Object[names.length];
+
+		Arrays.fill(values, UNBOUND);
+
+		return values;
+	}
+
+	/**
+	 * Check if a slot has a value.
+	 *
+	 * @param values
+	 *               The values of the slots.
+	 * @param slot
+	 *               The slot to check.
+	 * @return Whether the slot has a value.
+	 */
+	static boolean isBound(Object[] values, int slot) {
+		return slot < values.length && values[slot] != UNBOUND;
+	}
+
+	/**
+	 * Get the value of a slot.
+	 *
+	 * @param values
+	 *               The values of the slots.
+	 * @param slot
+	 *               The slot to get.
+	 * @return The value of the slot, or null if it has none.
+	 */
+	static Object get(Object[] values, int slot) {
+		return isBound(values, slot) ? values[slot] : null;
+	}
+}
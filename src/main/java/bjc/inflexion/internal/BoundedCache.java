@@ -0,0 +1,256 @@
+/**
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache that holds a bounded number of entries, evicting the
+ * least recently used ones when it fills up.
+ *
+ * The cache is split into a number of independently locked segments, so that
+ * threads looking up different keys don't usually contend with each other.
+ * Recency is tracked per segment, so eviction is only approximately LRU across
+ * the whole cache.
+ *
+ * The cache counts how many lookups hit and missed, so that it can be sized
+ * for the keys it actually sees.
+ *
+ * This is for use within the library only; its package isn't exported.
+ *
+ * @author bjculkin
+ *
+ * @param <K>
+ *            The type of keys in the cache.
+ * @param <V>
+ *            The type of values in the cache.
+ */
+public class BoundedCache<K, V> {
+	/* The maximum number of segments to split the cache into. */
+	private static final int MAX_SEGMENTS = 16;
+
+	/* A single LRU segment of the cache. */
+	private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 6049347302615489815L;
+
+		/* The number of entries this segment can hold. */
+		private final int capacity;
+
+		Segment(final int capacity) {
+			super(16, 0.75f, true);
+
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	/* The segments of the cache. */
+	private final Segment<K, V>[] segments;
+
+	/* The maximum number of entries in the cache. */
+	private final int maxSize;
+
+	/* The number of lookups that found a value, and that didn't. */
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Create a new bounded cache.
+	 *
+	 * @param maxSize
+	 *                The maximum number of entries to hold. The cache never
+	 *                holds more than this, though it may evict entries before
+	 *                it is full, since each segment fills up on its own.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If the size isn't positive.
+	 */
+	public BoundedCache(final int maxSize) {
+		if (maxSize <= 0)
+			throw new IllegalArgumentException(
+					"Cache size must be positive, not " + maxSize);
+
+		this.maxSize = maxSize;
+
+		final int numSegments = Math.min(MAX_SEGMENTS, maxSize);
+
+		// Split the size evenly, giving the first few segments the remainder
+		final int segmentSize = maxSize / numSegments;
+		final int remainder = maxSize % numSegments;
+
+		segments = newSegments(numSegments);
+
+		for (int i = 0; i < numSegments; i++) {
+			segments[i] = new Segment<>(i < remainder ? segmentSize + 1 : segmentSize);
+		}
+	}
+
+	/* Create an empty array of segments. */
+	private static <K, V> Segment<K, V>[] newSegments(final int count) {
+		@SuppressWarnings("unchecked")
+		final Segment<K, V>[] segs = (Segment<K, V>[]) new Segment<?, ?>[count];
+
+		return segs;
+	}
+
+	/**
+	 * Get the value for a key.
+	 *
+	 * @param key
+	 *            The key to look up.
+	 *
+	 * @return The value for the key, or null if it isn't cached.
+	 */
+	public V get(final K key) {
+		final Segment<K, V> segment = segmentFor(key);
+
+		final V value;
+		synchronized (segment) {
+			value = segment.get(key);
+		}
+
+		if (value == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+
+		return value;
+	}
+
+	/**
+	 * Add a value to the cache, possibly evicting an older one.
+	 *
+	 * @param key
+	 *            The key for the value.
+	 *
+	 * @param value
+	 *            The value to cache.
+	 */
+	public void put(final K key, final V value) {
+		final Segment<K, V> segment = segmentFor(key);
+
+		synchronized (segment) {
+			segment.put(key, value);
+		}
+	}
+
+	/**
+	 * Get the value for a key, computing and caching it if it isn't present.
+	 *
+	 * The value is computed without holding any locks, so the function may use
+	 * the cache itself. If two threads miss on the same key at once, both will
+	 * compute a value, and the last one will be kept.
+	 *
+	 * @param key
+	 *                The key to look up.
+	 *
+	 * @param compute
+	 *                The function to compute a missing value with.
+	 *
+	 * @return The value for the key.
+	 */
+	public V get(final K key, final Function<? super K, ? extends V> compute) {
+		final V cached = get(key);
+
+		if (cached != null)
+			return cached;
+
+		final V value = compute.apply(key);
+
+		if (value != null) {
+			put(key, value);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Remove every entry from the cache.
+	 */
+	public void clear() {
+		for (final Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Get the number of entries in the cache.
+	 *
+	 * @return The number of entries in the cache.
+	 */
+	public int size() {
+		int size = 0;
+
+		for (final Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Get the number of lookups that found a cached value.
+	 *
+	 * @return The number of cache hits.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Get the number of lookups that didn't find a cached value.
+	 *
+	 * @return The number of cache misses.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Reset the hit and miss counts to zero.
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Get the maximum number of entries in the cache.
+	 *
+	 * @return The maximum number of entries in the cache.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/* Get the segment a key belongs to. */
+	private Segment<K, V> segmentFor(final K key) {
+		final int hash = key.hashCode();
+
+		return segments[Math.floorMod(hash ^ hash >>> 16, segments.length)];
+	}
+}
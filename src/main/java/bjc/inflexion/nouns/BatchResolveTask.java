@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.nouns;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Resolves a batch of words, split up between the workers of a fork-join pool.
+ *
+ * Each distinct word in the batch is only looked up once; every other copy of
+ * it reuses the result. Results are kept for the batch alone, so a large batch
+ * doesn't push everything else out of the noun cache.
+ *
+ * @author bjculkin
+ *
+ * @param <T>
+ *            The type of result for each word.
+ */
+final class BatchResolveTask<T> extends RecursiveAction {
+	private static final long serialVersionUID = 7451108236370942581L;
+
+	/* The fewest words worth splitting off for another worker. */
+	private static final int MIN_PIECE = 1024;
+
+	/* The number of pieces to aim for, per worker. */
+	private static final int PIECES_PER_WORKER = 4;
+
+	/* The words to resolve. */
+	private final String[] words;
+
+	/* Where to put the result for each word. */
+	private final T[] results;
+
+	/* The result for each distinct word seen so far. */
+	private final ConcurrentHashMap<String, T> resolved;
+
+	/* Turns a word into its result. */
+	private final Function<String, T> resolver;
+
+	/* The part of the batch this task resolves. */
+	private final int start;
+	private final int end;
+
+	/* Pieces no bigger than this aren't split any further. */
+	private final int pieceSize;
+
+	/**
+	 * Create a new task.
+	 *
+	 * @param words
+	 *                    The words to resolve.
+	 * @param results
+	 *                    The array to put the result for each word in.
+	 * @param resolver
+	 *                    Turns a word into its result.
+	 * @param parallelism
+	 *                    The number of workers the task will run on.
+	 */
+	BatchResolveTask(final String[] words, final T[] results,
+			final Function<String, T> resolver, final int parallelism) {
+		this(words, results, new ConcurrentHashMap<>(), resolver, 0, words.length,
+				Math.max(MIN_PIECE, words.length / (parallelism * PIECES_PER_WORKER)));
+	}
+
+	private BatchResolveTask(final String[] words, final T[] results,
+			final ConcurrentHashMap<String, T> resolved,
+			final Function<String, T> resolver, final int start, final int end,
+			final int pieceSize) {
+		this.words = words;
+		this.results = results;
+		this.resolved = resolved;
+		this.resolver = resolver;
+		this.start = start;
+		this.end = end;
+		this.pieceSize = pieceSize;
+	}
+
+	@Override
+	protected void compute() {
+		if (end - start > pieceSize) {
+			final int mid = (start + end) >>> 1;
+
+			invokeAll(
+					new BatchResolveTask<>(words, results, resolved, resolver, start,
+							mid, pieceSize),
+					new BatchResolveTask<>(words, results, resolved, resolver, mid, end,
+							pieceSize));
+
+			return;
+		}
+
+		for (int i = start; i < end; i++) {
+			final String word = words[i];
+
+			T result = resolved.get(word);
+
+			if (result == null) {
+				result = resolved.computeIfAbsent(word, resolver);
+			}
+
+			results[i] = result;
+		}
+	}
+}
@@ -113,7 +113,7 @@ public class CompoundNounInflection implements NounInflection {
 	@Override
 	public boolean isSingular(final String noun) {
 		final Matcher matcher = cmpoundMatcher.matcher(noun);
-		final Noun actNoun = nunDB.getNoun(matcher.group("noun"));
+		final Noun actNoun = getNoun(matcher);
 
 		return actNoun.isSingular();
 	}
@@ -121,7 +121,7 @@ public class CompoundNounInflection implements NounInflection {
 	@Override
 	public boolean isPlural(final String noun) {
 		final Matcher matcher = cmpoundMatcher.matcher(noun);
-		final Noun actNoun = nunDB.getNoun(matcher.group("noun"));
+		final Noun actNoun = getNoun(matcher);
 
 		return actNoun.isPlural();
 	}
@@ -14,8 +14,6 @@
  */
 package bjc.inflexion.nouns;
 
-import java.util.regex.Pattern;
-
 /**
  * Utility methods for constructing inflection affixes.
  *
@@ -51,7 +49,7 @@ public class InflectionAffixes {
 	 * @return A affix that represents the suffix.
 	 */
 	public static InflectionAffix complete(final String suffix) {
-		final Pattern patt = Pattern.compile(String.format(COMPLETE_PATT_FMT, suffix));
+		final String patt = String.format(COMPLETE_PATT_FMT, suffix);
 
 		return new SimpleInflectionAffix("%s" + suffix, patt);
 	}
@@ -65,7 +63,7 @@ public class InflectionAffixes {
 	 * @return An affix that represents the suffix.
 	 */
 	public static InflectionAffix incomplete(final String suffix) {
-		final Pattern patt = Pattern.compile(String.format(INCOMPLETE_PATT_FMT, suffix));
+		final String patt = String.format(INCOMPLETE_PATT_FMT, suffix);
 
 		return new SimpleInflectionAffix("%s" + suffix, patt);
 	}
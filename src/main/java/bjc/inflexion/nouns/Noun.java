@@ -25,6 +25,12 @@ public class Noun {
 	/* Its inflection. */
 	private final NounInflection inflection;
 
+	/* Its forms, once they have been computed. */
+	private NounForms forms;
+
+	/* The version of the noun DB it was looked up with. */
+	private final long version;
+
 	/**
 	 * Create a new noun from a word and inflection.
 	 *
@@ -35,8 +41,39 @@ public class Noun {
 	 *                  The inflection for the word.
 	 */
 	public Noun(final String wrd, final NounInflection inflction) {
+		this(wrd, inflction, 0);
+	}
+
+	/**
+	 * Create a new noun from a word and inflection, found with a particular
+	 * version of a noun DB.
+	 *
+	 * @param wrd
+	 *                  The word for the noun.
+	 *
+	 * @param inflction
+	 *                  The inflection for the word.
+	 *
+	 * @param version
+	 *                  The version of the noun DB the inflection was found
+	 *                  with.
+	 */
+	Noun(final String wrd, final NounInflection inflction, final long version) {
 		word = wrd;
 		inflection = inflction;
+
+		this.version = version;
+	}
+
+	/**
+	 * Get the version of the noun DB this noun was looked up with.
+	 *
+	 * @return The version of the noun DB this noun was looked up with.
+	 *
+	 * @see Nouns#getVersion()
+	 */
+	long getVersion() {
+		return version;
 	}
 
 	/**
@@ -57,6 +94,33 @@ public class Noun {
 		return inflection;
 	}
 
+	/**
+	 * Get every form of this noun.
+	 *
+	 * The forms are computed the first time this is called, and reused after
+	 * that.
+	 *
+	 * @return The forms of this noun.
+	 *
+	 * @throws InflectionException
+	 *                             If the noun isn't part of its inflection.
+	 */
+	public NounForms getForms() {
+		/*
+		 * NounForms is immutable, so it's safe if several threads race to
+		 * compute it.
+		 */
+		NounForms res = forms;
+
+		if (res == null) {
+			res = new NounForms(this);
+
+			forms = res;
+		}
+
+		return res;
+	}
+
 	/**
 	 * Check if this noun is singular.
 	 *
@@ -96,7 +160,7 @@ public class Noun {
 	 * @return Whether this noun has differing plural forms.
 	 */
 	public boolean isDifferingPlural() {
-		return modernPlural().equals(classicalPlural());
+		return !modernPlural().equals(classicalPlural());
 	}
 
 	/**
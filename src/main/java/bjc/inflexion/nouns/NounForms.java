@@ -0,0 +1,173 @@
+/**
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.nouns;
+
+/**
+ * Every inflected form of a noun, worked out ahead of time.
+ *
+ * Unlike {@link Noun}, which consults its inflection every time a form is
+ * asked for, this resolves the number of the noun once and computes each form
+ * from that.
+ *
+ * @author bjculkin
+ */
+public final class NounForms {
+	/* Format string for toString. */
+	private static final String TOSTRING_FMT
+			= "NounForms [word=%s, singular=%s, modernPlural=%s, classicalPlural=%s]";
+
+	/* The noun the forms are for. */
+	private final Noun noun;
+
+	/* Whether or not the noun is plural. */
+	private final boolean isPlural;
+
+	/* The forms of the noun. */
+	private final String singular;
+	private final String plural;
+	private final String modernPlural;
+	private final String classicalPlural;
+
+	/**
+	 * Compute the forms of a noun.
+	 *
+	 * @param nun
+	 *            The noun to compute the forms of.
+	 *
+	 * @throws InflectionException
+	 *                             If the noun isn't part of its inflection.
+	 */
+	NounForms(final Noun nun) {
+		noun = nun;
+
+		final String word = nun.getWord();
+		final NounInflection inflection = nun.getInflection();
+
+		isPlural = inflection.isPlural(word);
+
+		if (isPlural) {
+			singular = inflection.singularize(word);
+			plural = word;
+		} else {
+			singular = word;
+			plural = inflection.pluralize(word);
+		}
+
+		modernPlural = inflection.pluralizeModern(singular);
+
+		// @NOTE 9/16/18
+		//
+		// Not sure if we're in modern/classical plural, so do the same thing
+		// Noun does.
+		classicalPlural = isPlural ? modernPlural : inflection.pluralizeClassical(word);
+	}
+
+	/**
+	 * Get the noun these are the forms of.
+	 *
+	 * @return The noun these are the forms of.
+	 */
+	public Noun getNoun() {
+		return noun;
+	}
+
+	/**
+	 * Get the input noun.
+	 *
+	 * @return The noun, as input.
+	 */
+	public String getWord() {
+		return noun.getWord();
+	}
+
+	/**
+	 * Check if the noun is singular.
+	 *
+	 * @return Whether or not the noun is singular.
+	 */
+	public boolean isSingular() {
+		return !isPlural;
+	}
+
+	/**
+	 * Check if the noun is plural.
+	 *
+	 * @return Whether or not the noun is plural.
+	 */
+	public boolean isPlural() {
+		return isPlural;
+	}
+
+	/**
+	 * Check whether or not the noun is uninflected (does not change in
+	 * singular/plural).
+	 *
+	 * @return Whether or not the noun is uninflected.
+	 */
+	public boolean isUninflected() {
+		return singular.equals(modernPlural) || singular.equals(classicalPlural);
+	}
+
+	/**
+	 * Check if the noun has differing modern/classical plural forms.
+	 *
+	 * @return Whether the noun has differing plural forms.
+	 */
+	public boolean isDifferingPlural() {
+		return !modernPlural.equals(classicalPlural);
+	}
+
+	/**
+	 * Get the singular form of the noun.
+	 *
+	 * @return The singular form of the noun.
+	 */
+	public String singular() {
+		return singular;
+	}
+
+	/**
+	 * Get the plural form of the noun.
+	 *
+	 * @return The plural form of the noun.
+	 */
+	public String plural() {
+		return plural;
+	}
+
+	/**
+	 * Get the modern plural form of the noun.
+	 *
+	 * @return The modern plural form of the noun.
+	 */
+	public String modernPlural() {
+		return modernPlural;
+	}
+
+	/**
+	 * Get the classical plural form of the noun.
+	 *
+	 * @return The classical plural form of the noun.
+	 */
+	public String classicalPlural() {
+		return classicalPlural;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(TOSTRING_FMT, noun.getWord(), singular, modernPlural,
+				classicalPlural);
+	}
+}
@@ -0,0 +1,332 @@
+/**
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.nouns;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * A noun definition, parsed and ready to be added to a noun DB without any
+ * further string processing.
+ *
+ * This is the only parser for the text format of noun definitions. The build
+ * uses it to compile the built-in nouns into tables of rules, so loading those
+ * tables and loading the text file always give the same DB.
+ *
+ * This class is compiled on its own at build time, so it must not use anything
+ * but {@link InflectionException} from the rest of the library.
+ *
+ * @author bjculkin
+ */
+final class NounRule {
+	/* The kinds of rule. */
+	enum Kind {
+		/* An irregular noun, with its forms. */
+		IRREGULAR,
+		/* Suffixes that may also be a word by themselves. */
+		COMPLETE,
+		/* Suffixes that must follow a stem. */
+		INCOMPLETE,
+		/* A compound noun, with format strings for its forms. */
+		COMPOUND
+	}
+
+	/* The group a compound noun matches its noun with. */
+	private static final String NOUN_GROUP = "(?<noun>\\w+)";
+	/* The group a compound noun matches its preposition with. */
+	private static final String PREPOSITION_GROUP = "(?<preposition>\\w+)";
+	/* The group a compound noun matches the rest of its words with. */
+	private static final String SCRATCH_GROUP = "(?<scratch>\\w+)";
+
+	/* No patterns, for rules that aren't compound. */
+	private static final String[] NO_PATTERNS = new String[0];
+
+	/* The kind of rule. */
+	final Kind kind;
+
+	/*
+	 * The forms of the rule. These are the words for irregular nouns, the
+	 * suffixes without their marker for suffix rules, and format strings for
+	 * compound nouns. Either plural may be null.
+	 */
+	final String singular;
+	final String modernPlural;
+	final String classicalPlural;
+
+	/* The regular expressions a compound noun matches its forms with. */
+	final String[] patterns;
+
+	/* Whether a compound noun takes a preposition, or has extra words. */
+	final boolean hasPreposition;
+	final boolean hasScratch;
+
+	private NounRule(final Kind kind, final String singular, final String modernPlural,
+			final String classicalPlural, final String[] patterns,
+			final boolean hasPreposition, final boolean hasScratch) {
+		this.kind = kind;
+		this.singular = singular;
+		this.modernPlural = modernPlural;
+		this.classicalPlural = classicalPlural;
+		this.patterns = patterns;
+		this.hasPreposition = hasPreposition;
+		this.hasScratch = hasScratch;
+	}
+
+	/**
+	 * Create a rule for an irregular noun.
+	 *
+	 * @param singular
+	 *                        The singular form.
+	 * @param modernPlural
+	 *                        The modern plural form, or null.
+	 * @param classicalPlural
+	 *                        The classical plural form, or null.
+	 *
+	 * @return The rule.
+	 */
+	static NounRule irregular(final String singular, final String modernPlural,
+			final String classicalPlural) {
+		return new NounRule(Kind.IRREGULAR, singular, modernPlural, classicalPlural,
+				NO_PATTERNS, false, false);
+	}
+
+	/**
+	 * Create a rule for suffixes that may also be a word by themselves.
+	 *
+	 * @param singular
+	 *                        The singular suffix.
+	 * @param modernPlural
+	 *                        The modern plural suffix, or null.
+	 * @param classicalPlural
+	 *                        The classical plural suffix, or null.
+	 *
+	 * @return The rule.
+	 */
+	static NounRule complete(final String singular, final String modernPlural,
+			final String classicalPlural) {
+		return new NounRule(Kind.COMPLETE, singular, modernPlural, classicalPlural,
+				NO_PATTERNS, false, false);
+	}
+
+	/**
+	 * Create a rule for suffixes that must follow a stem.
+	 *
+	 * @param singular
+	 *                        The singular suffix.
+	 * @param modernPlural
+	 *                        The modern plural suffix, or null.
+	 * @param classicalPlural
+	 *                        The classical plural suffix, or null.
+	 *
+	 * @return The rule.
+	 */
+	static NounRule incomplete(final String singular, final String modernPlural,
+			final String classicalPlural) {
+		return new NounRule(Kind.INCOMPLETE, singular, modernPlural, classicalPlural,
+				NO_PATTERNS, false, false);
+	}
+
+	/**
+	 * Create a rule for a compound noun.
+	 *
+	 * @param singular
+	 *                        The format string for the singular form.
+	 * @param modernPlural
+	 *                        The format string for the modern plural form.
+	 * @param classicalPlural
+	 *                        The format string for the classical plural form.
+	 * @param hasPreposition
+	 *                        Whether the noun takes a preposition.
+	 * @param hasScratch
+	 *                        Whether the noun has extra words.
+	 * @param patterns
+	 *                        The regular expressions that match the forms. Each
+	 *                        one becomes a separate inflection.
+	 *
+	 * @return The rule.
+	 */
+	static NounRule compound(final String singular, final String modernPlural,
+			final String classicalPlural, final boolean hasPreposition,
+			final boolean hasScratch, final String... patterns) {
+		return new NounRule(Kind.COMPOUND, singular, modernPlural, classicalPlural,
+				patterns, hasPreposition, hasScratch);
+	}
+
+	/**
+	 * Read the rules from a stream in the text format.
+	 *
+	 * The stream is read as UTF-8. Definitions with a '-' in them are also
+	 * added with spaces in place of the dashes.
+	 *
+	 * @param stream
+	 *                The stream to read from.
+	 * @param handler
+	 *                The handler for the rules, in the order they were read.
+	 *
+	 * @throws InflectionException
+	 *                             If a definition is improperly formatted.
+	 */
+	static void read(final InputStream stream, final Consumer<NounRule> handler) {
+		try (Scanner scn = new Scanner(stream, StandardCharsets.UTF_8)) {
+			while (scn.hasNextLine()) {
+				final String ln = scn.nextLine().trim();
+
+				/* Ignore comments and blank lines. */
+				if (ln.startsWith("#") || ln.equals("")) {
+					continue;
+				}
+
+				/* Handle being able to replace -'s with spaces. */
+				if (ln.contains("-")) {
+					handler.accept(parse(ln));
+					handler.accept(parse(ln.replace('-', ' ')));
+				} else {
+					handler.accept(parse(ln));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parse a line from a noun database.
+	 *
+	 * @param ln
+	 *           The line to parse.
+	 *
+	 * @return The rule the line defines.
+	 *
+	 * @throws InflectionException
+	 *                             If the line is improperly formatted.
+	 */
+	static NounRule parse(final String ln) {
+		final String[] parts = ln.split(Pattern.quote("=>"));
+
+		if (parts.length != 2) {
+			final String msg = String.format("Improperly formatted noun defn '%s'", ln);
+
+			throw new InflectionException(msg);
+		}
+
+		final String singular = parts[0].trim();
+		final String plural = parts[1].trim();
+
+		String modernPlural = "";
+		String classicalPlural = "";
+
+		if (plural.contains("|")) {
+			final String[] plurals = plural.split(Pattern.quote("|"));
+
+			if (plurals.length == 1) {
+				modernPlural = plurals[0].trim();
+			} else {
+				modernPlural = plurals[0].trim();
+				classicalPlural = plurals[1].trim();
+			}
+
+			if (modernPlural.equals("")) {
+				modernPlural = null;
+			}
+
+			if (classicalPlural.equals("")) {
+				classicalPlural = null;
+			}
+		} else {
+			modernPlural = plural;
+			classicalPlural = null;
+		}
+
+		if (singular.contains("(SING)")) {
+			return parseCompound(singular, modernPlural, classicalPlural);
+		} else if (singular.startsWith("*")) {
+			return complete(singular.substring(1), unmark(modernPlural),
+					unmark(classicalPlural));
+		} else if (singular.startsWith("-")) {
+			return incomplete(singular.substring(1), unmark(modernPlural),
+					unmark(classicalPlural));
+		}
+
+		return irregular(singular, modernPlural, classicalPlural);
+	}
+
+	/* Remove the marker from a suffix that may be null. */
+	private static String unmark(final String suffix) {
+		return suffix == null ? null : suffix.substring(1);
+	}
+
+	/*
+	 * Turn the forms of a compound noun into format strings, and the patterns
+	 * that match them.
+	 *
+	 * The noun is argument 1 of the format strings, then the preposition if
+	 * there is one, then the extra words if there are any.
+	 */
+	private static NounRule parseCompound(final String singular,
+			final String modernPlural, final String classicalPlural) {
+		final boolean hasPreposition = singular.contains("(PREP)");
+		final boolean hasScratch = singular.contains("*");
+
+		final String scratchArg = hasPreposition ? "%3$s" : "%2$s";
+
+		final String[] forms = {
+				singular, modernPlural == null ? "" : modernPlural,
+				classicalPlural == null ? "" : classicalPlural
+		};
+
+		final List<String> patterns = new ArrayList<>(3);
+
+		for (int i = 0; i < forms.length; i++) {
+			final String noun = i == 0 ? "(SING)" : "(PL)";
+
+			String patt = forms[i].replace(noun, NOUN_GROUP);
+			String form = forms[i].replace(noun, "%1$s");
+
+			if (hasPreposition) {
+				patt = patt.replace("(PREP)", PREPOSITION_GROUP);
+				form = form.replace("(PREP)", "%2$s");
+			}
+
+			if (hasScratch) {
+				patt = patt.replace("*", SCRATCH_GROUP);
+				form = form.replace("*", scratchArg);
+			}
+
+			if (i == 0 || !patt.equals("")) {
+				patterns.add(patt);
+			}
+
+			forms[i] = form;
+		}
+
+		/*
+		 * Missing plurals are null, except for prepositional nouns without extra
+		 * words, which have always kept them empty.
+		 */
+		if (hasScratch || !hasPreposition) {
+			for (int i = 1; i < forms.length; i++) {
+				if (forms[i].equals("")) {
+					forms[i] = null;
+				}
+			}
+		}
+
+		return compound(forms[0], forms[1], forms[2], hasPreposition, hasScratch,
+				patterns.toArray(new String[0]));
+	}
+}
@@ -19,13 +19,20 @@ import static bjc.inflexion.nouns.InflectionAffixes.incomplete;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 
+import bjc.inflexion.internal.BoundedCache;
+
 /**
  * Utilities for doing things with nouns.
  *
@@ -39,15 +46,29 @@ public class Nouns {
 	/* Database of prepositions. */
 	private final Prepositions prepositionDB;
 
-	/* User defined irregular inflections. */
-	private final Map<String, NounInflection> userIrregulars;
-	/* User defined categorical inflections. */
-	private final List<NounInflection> userInflections;
+	/*
+	 * User defined inflections. Readers take whichever snapshot is current;
+	 * writers publish a new one.
+	 */
+	private final AtomicReference<UserInflections> userInflections;
 
 	/* Predefined irregular inflections. */
 	private final Map<String, NounInflection> predefinedIrregulars;
 	/* Predefined categorical inflections. */
 	private final List<NounInflection> predefinedInflections;
+	/* Index of the predefined inflections that match by suffix. */
+	private final SuffixTrie predefinedSuffixes;
+	/* Positions of the predefined inflections that aren't in the index. */
+	private final List<Integer> unindexedInflections;
+
+	/*
+	 * The version of this DB, which goes up whenever anything is added to it, so
+	 * anything computed from it can tell if it is out of date.
+	 */
+	private final AtomicLong version;
+
+	/* Cache of nouns we have already looked up, or null if not caching. */
+	private final BoundedCache<String, Noun> nounCache;
 
 	/**
 	 * Create a new empty noun DB.
@@ -56,13 +77,36 @@ public class Nouns {
 	 *               The source for prepositions.
 	 */
 	public Nouns(final Prepositions prepDB) {
+		this(prepDB, 0);
+	}
+
+	/**
+	 * Create a new empty noun DB, which caches the nouns it looks up.
+	 *
+	 * @param prepDB
+	 *                  The source for prepositions.
+	 *
+	 * @param cacheSize
+	 *                  The maximum number of nouns to cache, or zero to not
+	 *                  cache nouns.
+	 */
+	public Nouns(final Prepositions prepDB, final int cacheSize) {
+		if (cacheSize < 0)
+			throw new IllegalArgumentException(
+					"Cache size must not be negative, not " + cacheSize);
+
 		prepositionDB = prepDB;
 
-		userIrregulars = new HashMap<>();
-		userInflections = new LinkedList<>();
+		nounCache = cacheSize == 0 ? null : new BoundedCache<>(cacheSize);
+
+		version = new AtomicLong();
+
+		userInflections = new AtomicReference<>(UserInflections.EMPTY);
 
 		predefinedIrregulars = new HashMap<>();
-		predefinedInflections = new LinkedList<>();
+		predefinedInflections = new ArrayList<>();
+		predefinedSuffixes = new SuffixTrie();
+		unindexedInflections = new ArrayList<>();
 	}
 
 	/**
@@ -77,342 +121,475 @@ public class Nouns {
 	 *                             If the noun matched no inflection.
 	 */
 	public Noun getNoun(final String noun) {
-		if (userIrregulars.containsKey(noun))
-			return new Noun(noun, userIrregulars.get(noun));
+		if (nounCache == null)
+			return lookupNoun(noun);
 
-		for (final NounInflection inflect : userInflections) {
-			if (inflect.matches(noun))
-				return new Noun(noun, inflect);
-		}
+		final Noun cached = nounCache.get(noun, this::lookupNoun);
 
-		if (predefinedIrregulars.containsKey(noun)) {
-			return new Noun(noun, predefinedIrregulars.get(noun));
-		}
+		if (cached.getVersion() == version.get())
+			return cached;
 
-		for (final NounInflection inflect : predefinedInflections) {
-			if (inflect.matches(noun))
-				return new Noun(noun, inflect);
-		}
+		/* This DB changed since this noun was looked up. */
+		final Noun current = lookupNoun(noun);
+		nounCache.put(noun, current);
 
-		return new Noun(noun, DEFAULT_INFLECTION);
+		return current;
 	}
 
 	/**
-	 * Load the contents of the stream into this DB.
+	 * Retrieve every form of a noun from the database of inflections.
 	 *
-	 * @param stream
-	 *               The stream to load from.
+	 * The forms are computed once per noun, so if caching is on, repeated
+	 * lookups of a noun won't recompute them.
+	 *
+	 * @param noun
+	 *             The noun to retrieve.
+	 *
+	 * @return The forms of the noun.
+	 *
+	 * @throws InflectionException
+	 *                             If the noun isn't part of its inflection.
 	 */
-	public void loadFromStream(final InputStream stream) {
-		try (Scanner scn = new Scanner(stream)) {
-			while (scn.hasNextLine()) {
-				final String ln = scn.nextLine().trim();
+	public NounForms getForms(final String noun) {
+		return getNoun(noun).getForms();
+	}
 
-				/* Ignore comments and blank lines. */
-				if (ln.startsWith("#") || ln.equals("")) {
-					continue;
-				}
+	/**
+	 * Retrieve every form of a batch of nouns at once.
+	 *
+	 * The batch is resolved in parallel, on the common fork-join pool.
+	 *
+	 * @param nouns
+	 *              The nouns to retrieve.
+	 *
+	 * @return The forms of each noun, in the same order.
+	 *
+	 * @see #resolveAll(String[], ForkJoinPool)
+	 */
+	public NounForms[] resolveAll(final String[] nouns) {
+		return resolveAll(nouns, ForkJoinPool.commonPool());
+	}
 
-				/* Handle being able to replace -'s with spaces. */
-				if (ln.contains("-")) {
-					handleLine(ln);
-					handleLine(ln.replace('-', ' '));
-				} else {
-					handleLine(ln);
-				}
-			}
-		}
+	/**
+	 * Retrieve every form of a batch of nouns at once.
+	 *
+	 * The batch is split up between the workers of the pool. Each distinct noun
+	 * in the batch is only looked up once, no matter how many times it appears.
+	 * Nouns are looked up without going through the noun cache, so a large batch
+	 * won't push out the nouns that are already cached.
+	 *
+	 * @param nouns
+	 *              The nouns to retrieve. Must not contain null.
+	 * @param pool
+	 *              The pool to resolve the nouns on.
+	 *
+	 * @return The forms of each noun, in the same order.
+	 *
+	 * @throws InflectionException
+	 *                             If any noun isn't part of its inflection.
+	 */
+	public NounForms[] resolveAll(final String[] nouns, final ForkJoinPool pool) {
+		return batch(nouns, new NounForms[nouns.length],
+				noun -> lookupNoun(noun).getForms(), pool);
 	}
 
-	/* Handle a line from a noun database. */
-	private void handleLine(final String ln) {
-		final String[] parts = ln.split(Pattern.quote("=>"));
+	/**
+	 * Retrieve every form of a batch of nouns at once.
+	 *
+	 * @param nouns
+	 *              The nouns to retrieve.
+	 *
+	 * @return The forms of each noun, in the same order.
+	 *
+	 * @see #resolveAll(String[], ForkJoinPool)
+	 */
+	public List<NounForms> resolveAll(final Collection<String> nouns) {
+		return Arrays.asList(resolveAll(nouns.toArray(new String[0])));
+	}
 
-		if (parts.length != 2) {
-			final String msg = String.format("Improperly formatted noun defn '%s'", ln);
+	/**
+	 * Pluralize a batch of nouns at once.
+	 *
+	 * @param nouns
+	 *              The nouns to pluralize.
+	 *
+	 * @return The plural of each noun, in the same order.
+	 *
+	 * @see #resolveAll(String[], ForkJoinPool)
+	 */
+	public String[] pluralizeAll(final String[] nouns) {
+		return pluralizeAll(nouns, ForkJoinPool.commonPool());
+	}
 
-			throw new InflectionException(msg);
-		}
+	/**
+	 * Pluralize a batch of nouns at once.
+	 *
+	 * Only the plural is worked out for each noun, but otherwise this works the
+	 * same way as {@link #resolveAll(String[], ForkJoinPool)}.
+	 *
+	 * @param nouns
+	 *              The nouns to pluralize. Must not contain null.
+	 * @param pool
+	 *              The pool to pluralize the nouns on.
+	 *
+	 * @return The plural of each noun, in the same order.
+	 */
+	public String[] pluralizeAll(final String[] nouns, final ForkJoinPool pool) {
+		return batch(nouns, new String[nouns.length], noun -> lookupNoun(noun).plural(),
+				pool);
+	}
 
-		final String singular = parts[0].trim();
-		final String plural = parts[1].trim();
+	/**
+	 * Pluralize a batch of nouns at once.
+	 *
+	 * @param nouns
+	 *              The nouns to pluralize.
+	 *
+	 * @return The plural of each noun, in the same order.
+	 *
+	 * @see #resolveAll(String[], ForkJoinPool)
+	 */
+	public List<String> pluralizeAll(final Collection<String> nouns) {
+		return Arrays.asList(pluralizeAll(nouns.toArray(new String[0])));
+	}
 
-		String modernPlural = "";
-		String classicalPlural = "";
+	/**
+	 * Singularize a batch of nouns at once.
+	 *
+	 * @param nouns
+	 *              The nouns to singularize.
+	 *
+	 * @return The singular of each noun, in the same order.
+	 *
+	 * @see #resolveAll(String[], ForkJoinPool)
+	 */
+	public String[] singularizeAll(final String[] nouns) {
+		return singularizeAll(nouns, ForkJoinPool.commonPool());
+	}
 
-		if (plural.contains("|")) {
-			final String[] plurals = plural.split(Pattern.quote("|"));
+	/**
+	 * Singularize a batch of nouns at once.
+	 *
+	 * Only the singular is worked out for each noun, but otherwise this works
+	 * the same way as {@link #resolveAll(String[], ForkJoinPool)}.
+	 *
+	 * @param nouns
+	 *              The nouns to singularize. Must not contain null.
+	 * @param pool
+	 *              The pool to singularize the nouns on.
+	 *
+	 * @return The singular of each noun, in the same order.
+	 */
+	public String[] singularizeAll(final String[] nouns, final ForkJoinPool pool) {
+		return batch(nouns, new String[nouns.length],
+				noun -> lookupNoun(noun).singular(), pool);
+	}
 
-			if (plurals.length == 1) {
-				modernPlural = plurals[0].trim();
-			} else {
-				modernPlural = plurals[0].trim();
-				classicalPlural = plurals[1].trim();
-			}
+	/**
+	 * Singularize a batch of nouns at once.
+	 *
+	 * @param nouns
+	 *              The nouns to singularize.
+	 *
+	 * @return The singular of each noun, in the same order.
+	 *
+	 * @see #resolveAll(String[], ForkJoinPool)
+	 */
+	public List<String> singularizeAll(final Collection<String> nouns) {
+		return Arrays.asList(singularizeAll(nouns.toArray(new String[0])));
+	}
 
-			if (modernPlural.equals("")) {
-				modernPlural = null;
-			}
+	/* Resolve a batch of nouns on a pool. */
+	private static <T> T[] batch(final String[] nouns, final T[] results,
+			final Function<String, T> resolver, final ForkJoinPool pool) {
+		pool.invoke(new BatchResolveTask<>(nouns, results, resolver,
+				pool.getParallelism()));
 
-			if (classicalPlural.equals("")) {
-				classicalPlural = null;
-			}
-		} else {
-			modernPlural = plural;
-			classicalPlural = null;
-		}
+		return results;
+	}
 
-		if (singular.contains("(SING)")) {
-			handleCompoundPlural(singular, modernPlural, classicalPlural);
-		} else if (singular.startsWith("*")) {
-			handleCompletePlural(singular, modernPlural, classicalPlural);
-		} else if (singular.startsWith("-")) {
-			handleIncompletePlural(singular, modernPlural, classicalPlural);
-		} else {
-			handleIrregularPlural(singular, modernPlural, classicalPlural);
-		}
+	/**
+	 * Remove any cached nouns, so that they will be looked up again.
+	 *
+	 * This is done automatically whenever inflections are added to this DB.
+	 */
+	public void clearCache() {
+		if (nounCache != null)
+			nounCache.clear();
 	}
 
-	/*
-	 * Handle a compound inflection.
+	/**
+	 * Get the version of this DB.
+	 *
+	 * Versions start at zero, and go up every time anything is added to this
+	 * DB, whether it is a user-defined inflection or a definition loaded from a
+	 * stream. Anything computed from this DB can be checked against the current
+	 * version to see if it is out of date.
+	 *
+	 * @return The current version of this DB.
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Get the current user-defined inflections.
+	 *
+	 * @return The current snapshot of the user-defined inflections.
+	 */
+	public UserInflections getUserInflections() {
+		return userInflections.get();
+	}
+
+	/**
+	 * Add a user-defined irregular noun.
+	 *
+	 * User-defined inflections are checked before any others, and replace any
+	 * user-defined inflection already added for the same words. This is safe to
+	 * call while other threads are looking up nouns; they see either the old
+	 * inflections or the new ones, never a mix.
+	 *
+	 * @param singular
+	 *                        The singular form of the noun.
+	 * @param modernPlural
+	 *                        The modern plural form of the noun, or null if it
+	 *                        doesn't have one.
+	 * @param classicalPlural
+	 *                        The classical plural form of the noun, or null if it
+	 *                        doesn't have one.
+	 *
+	 * @return The snapshot of user-defined inflections that includes the noun.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If neither plural form is given.
 	 */
-	private void handleCompoundPlural(final String singular, final String modernPlural,
+	public UserInflections addIrregular(final String singular, final String modernPlural,
 			final String classicalPlural) {
-		String actSingular = singular;
-		String actModern = modernPlural == null ? "" : modernPlural;
-		String actClassical = classicalPlural == null ? "" : classicalPlural;
+		if (modernPlural == null && classicalPlural == null)
+			throw new IllegalArgumentException(
+					"One of modern/classical plural forms must not be null");
 
-		final String singularPatt
-				= actSingular.replaceAll(Pattern.quote("(SING)"), "(?<noun>\\\\w+)");
+		final IrregularNounInflection inflection = new IrregularNounInflection(singular,
+				modernPlural, classicalPlural, false);
 
-		final String modernPatt
-				= actModern.replaceAll(Pattern.quote("(PL)"), "(?<noun>\\\\w+)");
+		return publish(user -> user.withIrregular(inflection, singular, modernPlural,
+				classicalPlural));
+	}
 
-		final String classicalPatt
-				= actClassical.replaceAll(Pattern.quote("(PL)"), "(?<noun>\\\\w+)");
+	/**
+	 * Add a user-defined inflection, which is checked against every noun.
+	 *
+	 * Inflections added this way are checked after user-defined irregular nouns,
+	 * in the order they were added, but before any other inflections.
+	 *
+	 * @param inflection
+	 *                   The inflection to add.
+	 *
+	 * @return The snapshot of user-defined inflections that includes the
+	 *         inflection.
+	 *
+	 * @see #addIrregular(String, String, String)
+	 */
+	public UserInflections addInflection(final NounInflection inflection) {
+		return publish(user -> user.withInflection(inflection));
+	}
 
-		actSingular = actSingular.replaceAll(Pattern.quote("(SING)"), "%1\\$s");
-		actModern = actModern.replaceAll(Pattern.quote("(PL)"), "%1\\$s");
-		actClassical = actClassical.replaceAll(Pattern.quote("(PL)"), "%1\\$s");
+	/* Publish a new snapshot of the user inflections. */
+	private UserInflections publish(final UnaryOperator<UserInflections> update) {
+		final UserInflections published = userInflections.updateAndGet(update);
 
-		final List<CompoundNounInflection> inflections = new ArrayList<>(3);
+		version.incrementAndGet();
 
-		if (singular.contains("(PREP)")) {
-			handleCompoundPreposition(actSingular, actModern, actClassical, singularPatt,
-					modernPatt, classicalPatt, inflections);
-		} else {
-			handleCompound(actSingular, actModern, actClassical, singularPatt, modernPatt,
-					classicalPatt, inflections);
-		}
+		/* Nouns we already looked up may inflect differently now. */
+		clearCache();
 
-		for (final NounInflection inf : inflections) {
-			predefinedInflections.add(inf);
-		}
+		return published;
 	}
 
-	/*
-	 * Handle a compound inflection.
-	 */
-	private void handleCompound(final String actSinglar, final String actModrn,
-			final String actClasscal, final String singularPtt, final String modernPtt,
-			final String classicalPtt, final List<CompoundNounInflection> inflections) {
-		if (singularPtt.contains("*")) {
-			final String singularPatt
-					= singularPtt.replaceAll(Pattern.quote("*"), "(?<scratch>\\\\w+)");
-
-			final String modernPatt
-					= modernPtt.replaceAll(Pattern.quote("*"), "(?<scratch>\\\\w+)");
-
-			final String classicalPatt
-					= classicalPtt.replaceAll(Pattern.quote("*"), "(?<scratch>\\\\w+)");
-
-			final String actSingular
-					= actSinglar.replaceAll(Pattern.quote("*"), "%2\\$s");
-			final String actModern = actModrn.replaceAll(Pattern.quote("*"), "%2\\$s");
-			final String actClassical
-					= actClasscal.replaceAll(Pattern.quote("*"), "%2\\$s");
-
-			handleNonpluralCompound(actSingular, actModern, actClassical, singularPatt,
-					modernPatt, classicalPatt, inflections, true);
-		} else {
-			handleNonpluralCompound(actSinglar, actModrn, actClasscal, singularPtt,
-					modernPtt, classicalPtt, inflections, false);
-		}
+	/* Look up a noun in the database of inflections. */
+	private Noun lookupNoun(final String noun) {
+		/* Read the version first, so a change during lookup is caught later. */
+		final long current = version.get();
+
+		return new Noun(noun, findInflection(noun, userInflections.get()), current);
 	}
 
-	/* Handle a non-plural compound inflection. */
-	private void handleNonpluralCompound(final String actSinglar, final String actModrn,
-			final String actClasscal, final String singularPatt, final String modernPatt,
-			final String classicalPatt, final List<CompoundNounInflection> inflections,
-			final boolean hasScratch) {
-		final String actModern = actModrn.equals("") ? null : actModrn;
-		final String actClassical = actClasscal.equals("") ? null : actClasscal;
+	/* Find the inflection for a noun. */
+	private NounInflection findInflection(final String noun,
+			final UserInflections user) {
+		final NounInflection userInflection = user.find(noun);
 
-		final Pattern singPt = Pattern.compile(singularPatt);
+		if (userInflection != null)
+			return userInflection;
 
-		final CompoundNounInflection singularInflection
-				= new CompoundNounInflection(this, prepositionDB, singPt, actSinglar,
-						actModern, actClassical, false, hasScratch);
+		if (predefinedIrregulars.containsKey(noun)) {
+			return predefinedIrregulars.get(noun);
+		}
 
-		inflections.add(singularInflection);
+		/*
+		 * The suffix index gives us the first suffix inflection that matches, but
+		 * any other inflection that comes before it still gets a chance to match
+		 * first.
+		 */
+		final int indexed = predefinedSuffixes.find(noun);
 
-		if (!modernPatt.equals("")) {
-			final Pattern modPt = Pattern.compile(modernPatt);
+		for (final int idx : unindexedInflections) {
+			if (indexed != -1 && idx > indexed)
+				break;
 
-			final CompoundNounInflection modernInflection
-					= new CompoundNounInflection(this, prepositionDB, modPt, actSinglar,
-							actModern, actClassical, false, hasScratch);
+			final NounInflection inflect = predefinedInflections.get(idx);
 
-			inflections.add(modernInflection);
+			if (inflect.matches(noun))
+				return inflect;
 		}
 
-		if (!classicalPatt.equals("")) {
-			final Pattern clasPt = Pattern.compile(classicalPatt);
+		if (indexed != -1)
+			return predefinedInflections.get(indexed);
 
-			final CompoundNounInflection classicalInflection
-					= new CompoundNounInflection(this, prepositionDB, clasPt, actSinglar,
-							actModern, actClassical, false, hasScratch);
+		return DEFAULT_INFLECTION;
+	}
 
-			inflections.add(classicalInflection);
+	/**
+	 * Load the contents of the stream into this DB.
+	 *
+	 * The stream is read as UTF-8.
+	 *
+	 * @param stream
+	 *               The stream to load from.
+	 *
+	 * @throws InflectionException
+	 *                             If a definition is improperly formatted.
+	 */
+	public void loadFromStream(final InputStream stream) {
+		try {
+			NounRule.read(stream, this::addRule);
+		} finally {
+			/* Nouns we already looked up may inflect differently now. */
+			clearCache();
 		}
 	}
 
-	/*
-	 * Handle a compound plural with a preposition.
+	/**
+	 * Load the built-in nouns into this DB, and the built-in prepositions into
+	 * its preposition DB.
+	 *
+	 * These are compiled into the library from its data files when it is built,
+	 * so loading them doesn't need to read or parse anything.
 	 */
-	private void handleCompoundPreposition(final String actSinglar, final String actModrn,
-			final String actClasscal, final String singularPtt, final String modernPtt,
-			final String classicalPtt, final List<CompoundNounInflection> inflections) {
-		String singularPatt = singularPtt.replaceAll(Pattern.quote("(PREP)"),
-				"(?<preposition>\\\\w+)");
-
-		String modernPatt
-				= modernPtt.replaceAll(Pattern.quote("(PREP)"), "(?<preposition>\\\\w+)");
-
-		String classicalPatt = classicalPtt.replaceAll(Pattern.quote("(PREP)"),
-				"(?<preposition>\\\\w+)");
-
-		String actSingular = actSinglar.replaceAll(Pattern.quote("(PREP)"), "%2\\$s");
-		String actModern = actModrn.replaceAll(Pattern.quote("(PREP)"), "%2\\$s");
-		String actClassical = actClasscal.replaceAll(Pattern.quote("(PREP)"), "%2\\$s");
-
-		if (singularPatt.contains("*")) {
-			singularPatt
-					= singularPatt.replaceAll(Pattern.quote("*"), "(?<scratch>\\\\w+)");
-			modernPatt = modernPatt.replaceAll(Pattern.quote("*"), "(?<scratch>\\\\w+)");
-			classicalPatt
-					= classicalPatt.replaceAll(Pattern.quote("*"), "(?<scratch>\\\\w+)");
-
-			actSingular = actSingular.replaceAll(Pattern.quote("*"), "%3\\$s");
-			actModern = actModern.replaceAll(Pattern.quote("*"), "%3\\$s");
-			actClassical = actClassical.replaceAll(Pattern.quote("*"), "%3\\$s");
-
-			actModern = actModern.equals("") ? null : actModern;
-			actClassical = actClassical.equals("") ? null : actClassical;
-
-			addCompoundInflections(actSingular, actModern, actClassical, singularPatt,
-					modernPatt, classicalPatt, inflections, true);
-		} else {
-			addCompoundInflections(actSingular, actModern, actClassical, singularPatt,
-					modernPatt, classicalPatt, inflections, false);
+	public void loadPredefined() {
+		try {
+			PredefinedTables.loadPrepositions(prepositionDB);
+			PredefinedTables.loadNouns(this);
+		} finally {
+			/* Nouns we already looked up may inflect differently now. */
+			clearCache();
 		}
 	}
 
-	/* Do adding a compound inflection. */
-	private void addCompoundInflections(final String actSingular, final String actModern,
-			final String actClassical, final String singularPatt, final String modernPatt,
-			final String classicalPatt, final List<CompoundNounInflection> inflections,
-			final boolean hasScratch) {
-		Pattern singPt = Pattern.compile(singularPatt);
-
-		final CompoundNounInflection singularInflection
-				= new CompoundNounInflection(this, prepositionDB, singPt, actSingular,
-						actModern, actClassical, true, hasScratch);
+	/**
+	 * Add a parsed noun definition to this DB.
+	 *
+	 * Unlike {@link #loadFromStream(InputStream)}, this doesn't clear the cache,
+	 * but it does bump the version of this DB.
+	 *
+	 * @param rule
+	 *             The definition to add.
+	 */
+	void addRule(final NounRule rule) {
+		addRuleUnversioned(rule);
 
-		inflections.add(singularInflection);
+		version.incrementAndGet();
+	}
 
-		if (!modernPatt.equals("")) {
-			Pattern modPt = Pattern.compile(modernPatt);
+	/* Add a parsed noun definition to this DB, without bumping the version. */
+	private void addRuleUnversioned(final NounRule rule) {
+		switch (rule.kind) {
+		case COMPOUND:
+			Pattern compiled = null;
 
-			final CompoundNounInflection modernInflection
-					= new CompoundNounInflection(this, prepositionDB, modPt, actSingular,
-							actModern, actClassical, true, hasScratch);
+			for (final String patt : rule.patterns) {
+				/* Plurals often match the same way as the form before them. */
+				if (compiled == null || !compiled.pattern().equals(patt)) {
+					compiled = Pattern.compile(patt);
+				}
 
-			inflections.add(modernInflection);
+				addUnindexed(new CompoundNounInflection(this, prepositionDB, compiled,
+						rule.singular, rule.modernPlural, rule.classicalPlural,
+						rule.hasPreposition, rule.hasScratch));
+			}
+			break;
+		case COMPLETE:
+			addCategorical(rule, true);
+			break;
+		case INCOMPLETE:
+			addCategorical(rule, false);
+			break;
+		default:
+			addIrregularRule(rule);
+			break;
 		}
+	}
 
-		if (!classicalPatt.equals("")) {
-			Pattern clasPt = Pattern.compile(classicalPatt);
-
-			final CompoundNounInflection classicalInflection
-					= new CompoundNounInflection(this, prepositionDB, clasPt, actSingular,
-							actModern, actClassical, true, hasScratch);
+	/* Make an affix from a suffix. */
+	private static InflectionAffix affix(final String suffix, final boolean complete) {
+		if (suffix == null)
+			return null;
 
-			inflections.add(classicalInflection);
-		}
+		return complete ? complete(suffix) : incomplete(suffix);
 	}
 
-	/* Handle an incomplete plural. */
-	private void handleIncompletePlural(final String singular, final String modernPlural,
-			final String classicalPlural) {
-		final InflectionAffix singularAffix = incomplete(singular.substring(1));
+	/*
+	 * Add a categorical inflection, indexing it by its suffixes if they are all
+	 * plain strings.
+	 */
+	private void addCategorical(final NounRule rule, final boolean complete) {
+		final CategoricalNounInflection inflection = new CategoricalNounInflection(
+				affix(rule.singular, complete), affix(rule.modernPlural, complete),
+				affix(rule.classicalPlural, complete));
 
-		InflectionAffix modernAffix = null;
-		InflectionAffix classicalAffix = null;
+		final String[] forms = {
+				rule.singular, rule.modernPlural, rule.classicalPlural
+		};
 
-		if (modernPlural != null) {
-			modernAffix = incomplete(modernPlural.substring(1));
-		}
+		for (final String form : forms) {
+			if (form != null && !SuffixTrie.isLiteral(form)) {
+				addUnindexed(inflection);
 
-		if (classicalPlural != null) {
-			classicalAffix = incomplete(classicalPlural.substring(1));
+				return;
+			}
 		}
 
-		final CategoricalNounInflection inflection = new CategoricalNounInflection(
-				singularAffix, modernAffix, classicalAffix);
+		final int idx = predefinedInflections.size();
 
 		predefinedInflections.add(inflection);
-	}
 
-	/* Handle a complete plural. */
-	private void handleCompletePlural(final String singular, final String modernPlural,
-			final String classicalPlural) {
-		final InflectionAffix singularAffix = complete(singular.substring(1));
-
-		InflectionAffix modernAffix = null;
-		InflectionAffix classicalAffix = null;
-
-		if (modernPlural != null) {
-			modernAffix = complete(modernPlural.substring(1));
+		for (final String form : forms) {
+			if (form != null) {
+				predefinedSuffixes.add(form, complete, idx);
+			}
 		}
+	}
 
-		if (classicalPlural != null) {
-			classicalAffix = complete(classicalPlural.substring(1));
-		}
-
-		final CategoricalNounInflection inflection = new CategoricalNounInflection(
-				singularAffix, modernAffix, classicalAffix);
+	/* Add an inflection that has to be checked by matching it. */
+	private void addUnindexed(final NounInflection inflection) {
+		unindexedInflections.add(predefinedInflections.size());
 
 		predefinedInflections.add(inflection);
 	}
 
-	/* Handle an irregular plural. */
-	private void handleIrregularPlural(final String singular, final String modernPlural,
-			final String classicalPlural) {
-		final IrregularNounInflection inflection = new IrregularNounInflection(singular,
-				modernPlural, classicalPlural, false);
+	/* Add an irregular noun. */
+	private void addIrregularRule(final NounRule rule) {
+		final IrregularNounInflection inflection = new IrregularNounInflection(
+				rule.singular, rule.modernPlural, rule.classicalPlural, false);
 
-		if (!predefinedIrregulars.containsKey(singular)) {
-			predefinedIrregulars.put(singular, inflection);
-		}
+		predefinedIrregulars.putIfAbsent(rule.singular, inflection);
 
-		if (modernPlural != null && !predefinedIrregulars.containsKey(modernPlural)) {
-			predefinedIrregulars.put(modernPlural, inflection);
+		if (rule.modernPlural != null) {
+			predefinedIrregulars.putIfAbsent(rule.modernPlural, inflection);
 		}
 
-		if (classicalPlural != null
-				&& !predefinedIrregulars.containsKey(classicalPlural)) {
-			predefinedIrregulars.put(classicalPlural, inflection);
+		if (rule.classicalPlural != null) {
+			predefinedIrregulars.putIfAbsent(rule.classicalPlural, inflection);
 		}
 	}
 }
@@ -15,6 +15,8 @@
 package bjc.inflexion.nouns;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Scanner;
 import java.util.Set;
@@ -45,14 +47,35 @@ public class Prepositions {
 		return prepositions.contains(word);
 	}
 
+	/**
+	 * Add a preposition to this DB.
+	 *
+	 * @param word
+	 *             The preposition to add.
+	 */
+	void addPreposition(final String word) {
+		prepositions.add(word);
+	}
+
+	/**
+	 * Get the prepositions in this DB.
+	 *
+	 * @return The prepositions in this DB.
+	 */
+	Set<String> getPrepositions() {
+		return Collections.unmodifiableSet(prepositions);
+	}
+
 	/**
 	 * Load the contents of the stream into this DB.
 	 *
+	 * The stream is read as UTF-8.
+	 *
 	 * @param stream
 	 *               The stream to load from.
 	 */
 	public void loadFromStream(final InputStream stream) {
-		try (Scanner scn = new Scanner(stream)) {
+		try (Scanner scn = new Scanner(stream, StandardCharsets.UTF_8)) {
 			while (scn.hasNextLine()) {
 				final String ln = scn.nextLine().trim();
 
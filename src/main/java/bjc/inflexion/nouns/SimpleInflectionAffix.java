@@ -30,7 +30,9 @@ public class SimpleInflectionAffix implements InflectionAffix {
 	/* Affix template. */
 	private final String affixTmplate;
 	/* Affix matching. */
-	private final Pattern affixMtcher;
+	private volatile Pattern affixMtcher;
+	/* Source for affix matching, if it hasn't been compiled yet. */
+	private final String affixSource;
 
 	/**
 	 * Create a new inflection affix.
@@ -47,16 +49,51 @@ public class SimpleInflectionAffix implements InflectionAffix {
 	public SimpleInflectionAffix(final String affixTemplate, final Pattern affixMatcher) {
 		affixTmplate = affixTemplate;
 		affixMtcher = affixMatcher;
+		affixSource = affixMatcher.pattern();
+	}
+
+	/**
+	 * Create a new inflection affix, which compiles its regular expression the
+	 * first time it is used.
+	 *
+	 * Most affixes in a noun DB are never used, so this avoids compiling their
+	 * regular expressions when loading it.
+	 *
+	 * @param affixTemplate
+	 *                      The template for applying the affix, Should be a
+	 *                      printf-style format string with a single string blank.
+	 *
+	 * @param affixMatcher
+	 *                      The regular expression that matches the affix on
+	 *                      strings. The 'stem' or word should be placed in a named
+	 *                      capturing group named 'stem'.
+	 */
+	public SimpleInflectionAffix(final String affixTemplate, final String affixMatcher) {
+		affixTmplate = affixTemplate;
+		affixSource = affixMatcher;
+	}
+
+	/* Get the affix matcher, compiling it if needed. */
+	private Pattern matcher() {
+		Pattern res = affixMtcher;
+
+		if (res == null) {
+			res = Pattern.compile(affixSource);
+
+			affixMtcher = res;
+		}
+
+		return res;
 	}
 
 	@Override
 	public boolean hasAffix(final String word) {
-		return affixMtcher.matcher(word).matches();
+		return matcher().matcher(word).matches();
 	}
 
 	@Override
 	public String deaffix(final String word) {
-		final Matcher matcher = affixMtcher.matcher(word);
+		final Matcher matcher = matcher().matcher(word);
 		matcher.matches();
 
 		return matcher.group("stem");
@@ -69,7 +106,7 @@ public class SimpleInflectionAffix implements InflectionAffix {
 
 	@Override
 	public String toString() {
-		return String.format(TOSTRING_FMT, affixTmplate, affixMtcher);
+		return String.format(TOSTRING_FMT, affixTmplate, affixSource);
 	}
 
 	@Override
@@ -77,7 +114,7 @@ public class SimpleInflectionAffix implements InflectionAffix {
 		final int prime = 31;
 		int result = 1;
 
-		result = prime * result + (affixMtcher == null ? 0 : affixMtcher.hashCode());
+		result = prime * result + (affixSource == null ? 0 : affixSource.hashCode());
 		result = prime * result + (affixTmplate == null ? 0 : affixTmplate.hashCode());
 
 		return result;
@@ -102,10 +139,10 @@ public class SimpleInflectionAffix implements InflectionAffix {
 		} else if (!affixTmplate.equals(other.affixTmplate))
 			return false;
 
-		if (affixMtcher == null) {
-			if (other.affixMtcher != null)
+		if (affixSource == null) {
+			if (other.affixSource != null)
 				return false;
-		} else if (!affixMtcher.equals(other.affixMtcher))
+		} else if (!affixSource.equals(other.affixSource))
 			return false;
 
 		return true;
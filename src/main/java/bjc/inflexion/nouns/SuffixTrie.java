@@ -0,0 +1,207 @@
+/**
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.nouns;
+
+import java.util.Arrays;
+
+/**
+ * Index from literal word suffixes to the inflection rules that use them.
+ *
+ * The suffixes are stored reversed, so that a word can be checked against all
+ * of them by walking it from the end, in time proportional to its length.
+ *
+ * Each suffix maps to the position of a rule. When a word matches several
+ * rules, the one with the lowest position is returned, so that the order the
+ * rules were loaded in is respected.
+ *
+ * @author bjculkin
+ */
+final class SuffixTrie {
+	/* Characters that prevent a suffix from being treated literally. */
+	private static final String REGEX_CHARS = "\\^$.|?*+()[]{}";
+
+	/* A node in the trie. */
+	private static final class Node {
+		/* The characters leading to our children, in sorted order. */
+		char[] keys = new char[0];
+		/* Our children, parallel to keys. */
+		Node[] children = new Node[0];
+
+		/* The first rule ending here that allows an empty stem. */
+		int completeRule = -1;
+		/* The first rule ending here that requires a non-empty stem. */
+		int incompleteRule = -1;
+
+		/* Get the child for a character, or null if there isn't one. */
+		Node child(final char key) {
+			final int idx = Arrays.binarySearch(keys, key);
+
+			return idx < 0 ? null : children[idx];
+		}
+
+		/* Get the child for a character, creating it if needed. */
+		Node addChild(final char key) {
+			int idx = Arrays.binarySearch(keys, key);
+
+			if (idx >= 0)
+				return children[idx];
+
+			idx = -(idx + 1);
+
+			final Node kid = new Node();
+
+			final char[] newKeys = new char[keys.length + 1];
+			final Node[] newChildren = new Node[children.length + 1];
+
+			System.arraycopy(keys, 0, newKeys, 0, idx);
+			System.arraycopy(children, 0, newChildren, 0, idx);
+
+			newKeys[idx] = key;
+			newChildren[idx] = kid;
+
+			System.arraycopy(keys, idx, newKeys, idx + 1, keys.length - idx);
+			System.arraycopy(children, idx, newChildren, idx + 1,
+					children.length - idx);
+
+			keys = newKeys;
+			children = newChildren;
+
+			return kid;
+		}
+	}
+
+	/* The node for the empty suffix. */
+	private final Node root;
+
+	/** Create a new empty suffix trie. */
+	SuffixTrie() {
+		root = new Node();
+	}
+
+	/**
+	 * Check if a suffix can be stored in this trie.
+	 *
+	 * Suffixes that contain regular expression syntax can't be matched
+	 * literally, and so have to be checked some other way.
+	 *
+	 * @param suffix
+	 *               The suffix to check.
+	 *
+	 * @return Whether or not the suffix is a plain string.
+	 */
+	static boolean isLiteral(final String suffix) {
+		for (int i = 0; i < suffix.length(); i++) {
+			if (REGEX_CHARS.indexOf(suffix.charAt(i)) != -1)
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Add a suffix to the trie.
+	 *
+	 * @param suffix
+	 *                 The suffix to add.
+	 *
+	 * @param complete
+	 *                 Whether the suffix can be a word by itself, or needs at
+	 *                 least one character in front of it.
+	 *
+	 * @param rule
+	 *                 The position of the rule the suffix belongs to.
+	 */
+	void add(final String suffix, final boolean complete, final int rule) {
+		Node node = root;
+
+		for (int i = suffix.length() - 1; i >= 0; i--) {
+			node = node.addChild(suffix.charAt(i));
+		}
+
+		if (complete) {
+			node.completeRule = pick(node.completeRule, rule);
+		} else {
+			node.incompleteRule = pick(node.incompleteRule, rule);
+		}
+	}
+
+	/**
+	 * Find the first rule with a suffix matching a word.
+	 *
+	 * A suffix matches if the word ends with it, and everything in front of it
+	 * is made up of word characters.
+	 *
+	 * @param word
+	 *             The word to look up.
+	 *
+	 * @return The position of the first matching rule, or -1 if no rule
+	 *         matches.
+	 */
+	int find(final String word) {
+		final int len = word.length();
+		final int stemLimit = stemLimit(word);
+
+		int best = -1;
+
+		Node node = root;
+		for (int depth = 0;; depth++) {
+			final int stemLen = len - depth;
+
+			if (stemLen <= stemLimit) {
+				if (node.completeRule != -1) {
+					best = pick(best, node.completeRule);
+				}
+
+				if (stemLen > 0 && node.incompleteRule != -1) {
+					best = pick(best, node.incompleteRule);
+				}
+			}
+
+			if (depth == len)
+				break;
+
+			node = node.child(word.charAt(len - depth - 1));
+
+			if (node == null)
+				break;
+		}
+
+		return best;
+	}
+
+	/* Pick whichever of two rules came first. */
+	private static int pick(final int current, final int rule) {
+		if (current == -1 || rule < current)
+			return rule;
+
+		return current;
+	}
+
+	/* Get the length of the longest stem the word can have. */
+	private static int stemLimit(final String word) {
+		for (int i = 0; i < word.length(); i++) {
+			if (!isWordChar(word.charAt(i)))
+				return i;
+		}
+
+		return word.length();
+	}
+
+	/* Check if a character is matched by \w. */
+	private static boolean isWordChar(final char ch) {
+		return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z'
+				|| ch >= '0' && ch <= '9' || ch == '_';
+	}
+}
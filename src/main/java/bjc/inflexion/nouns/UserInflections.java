@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bjc.inflexion.nouns;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of the user-defined inflections of a noun DB.
+ *
+ * Snapshots are immutable. Adding an inflection to a noun DB publishes a new
+ * snapshot with a higher version, so anything computed from one snapshot can
+ * be checked against the version of the current one to see if it is out of
+ * date.
+ *
+ * @author bjculkin
+ *
+ * @see Nouns#getUserInflections()
+ */
+public final class UserInflections {
+	/* The snapshot every noun DB starts with. */
+	static final UserInflections EMPTY
+			= new UserInflections(Collections.emptyMap(), new NounInflection[0], 0);
+
+	/* Inflections for specific words. */
+	private final Map<String, NounInflection> irregulars;
+
+	/* Inflections that match words, in the order they were added. */
+	private final NounInflection[] inflections;
+
+	/* The version of this snapshot. */
+	private final long version;
+
+	private UserInflections(final Map<String, NounInflection> irregulars,
+			final NounInflection[] inflections, final long version) {
+		this.irregulars = irregulars;
+		this.inflections = inflections;
+		this.version = version;
+	}
+
+	/**
+	 * Get the version of this snapshot.
+	 *
+	 * Versions start at zero, and go up by one every time an inflection is
+	 * added.
+	 *
+	 * @return The version of this snapshot.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get the inflection added for a specific word.
+	 *
+	 * @param word
+	 *             The word to get the inflection for.
+	 *
+	 * @return The inflection for the word, or null if there isn't one.
+	 */
+	public NounInflection getIrregular(final String word) {
+		return irregulars.get(word);
+	}
+
+	/**
+	 * Get the inflections that match words.
+	 *
+	 * @return The inflections, in the order they are tried.
+	 */
+	public List<NounInflection> getInflections() {
+		return Collections.unmodifiableList(Arrays.asList(inflections));
+	}
+
+	/**
+	 * Find the user-defined inflection for a noun.
+	 *
+	 * @param noun
+	 *             The noun to find the inflection for.
+	 *
+	 * @return The inflection for the noun, or null if there isn't one.
+	 */
+	NounInflection find(final String noun) {
+		final NounInflection irregular = irregulars.get(noun);
+
+		if (irregular != null)
+			return irregular;
+
+		for (final NounInflection inflect : inflections) {
+			if (inflect.matches(noun))
+				return inflect;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Create a copy of this snapshot, with inflections for specific words
+	 * added.
+	 *
+	 * @param inflection
+	 *                   The inflection to add.
+	 * @param words
+	 *                   The words it is for. Null words are skipped.
+	 *
+	 * @return The new snapshot.
+	 */
+	UserInflections withIrregular(final NounInflection inflection,
+			final String... words) {
+		final Map<String, NounInflection> added = new HashMap<>(irregulars);
+
+		for (final String word : words) {
+			if (word != null)
+				added.put(word, inflection);
+		}
+
+		return new UserInflections(Collections.unmodifiableMap(added), inflections,
+				version + 1);
+	}
+
+	/**
+	 * Create a copy of this snapshot, with an inflection that matches words
+	 * added after the others.
+	 *
+	 * @param inflection
+	 *                   The inflection to add.
+	 *
+	 * @return The new snapshot.
+	 */
+	UserInflections withInflection(final NounInflection inflection) {
+		final NounInflection[] added
+				= Arrays.copyOf(inflections, inflections.length + 1);
+		added[inflections.length] = inflection;
+
+		return new UserInflections(irregulars, added, version + 1);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("UserInflections [version=%d, irregulars=%d, inflections=%d]",
+				version, irregulars.size(), inflections.length);
+	}
+}
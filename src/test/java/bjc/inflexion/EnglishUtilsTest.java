@@ -0,0 +1,90 @@
+package bjc.inflexion;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for picking indefinite articles.
+ *
+ * The expected articles are the ones the regex version of
+ * {@link EnglishUtils#pickIndefinite(String)} gave, which followed the rules
+ * in indefinite.txt.
+ *
+ * @author bjculkin
+ *
+ */
+public class EnglishUtilsTest {
+	/**
+	 * Test vowels that sound like consonants.
+	 */
+	@Test
+	public void testConsonantVowels() {
+		assertArticle("a", "unicorn", "unit", "united", "universe", "unimodal",
+				"ubiquitous", "usurer", "utopia", "uterus", "user", "u-turn");
+		assertArticle("an", "unanimous", "unindexed", "uninformed", "unidirectional",
+				"umbrella");
+
+		assertArticle("a", "one", "once", "eulogy", "european", "ewe");
+		assertArticle("an", "onetime", "oneself", "onion", "only", "ounce", "euler");
+	}
+
+	/**
+	 * Test words that start with a silent 'h'.
+	 */
+	@Test
+	public void testSilentH() {
+		assertArticle("an", "hour", "hourly", "heir", "heirloom", "honest", "honour",
+				"honorific");
+		assertArticle("a", "houri", "hat", "horse");
+	}
+
+	/**
+	 * Test abbreviations and single letters.
+	 */
+	@Test
+	public void testAbbreviations() {
+		assertArticle("an", "LED", "SUV", "XML", "MRI", "HTML", "SQL", "NY", "RSVP",
+				"MP", "NSA", "LA", "SCUBA", "RN", "IOU");
+		assertArticle("a", "UK", "UN", "UNESCO", "UNICEF", "FAQ", "UFO", "URL");
+
+		// Only two letter abbreviations are checked for a consonant sound
+		assertArticle("a", "FBI", "FJORD");
+
+		assertArticle("an", "a", "e", "h", "x", "A", "H", "X", "x-ray", "e-mail");
+		assertArticle("a", "b", "u", "y", "z", "U", "f-stop");
+	}
+
+	/**
+	 * Test words starting with 'y'.
+	 */
+	@Test
+	public void testInitialY() {
+		assertArticle("an", "yttrium", "ygg", "yblent", "yclept", "ypsilanti");
+		assertArticle("a", "year", "yellow", "yes");
+	}
+
+	/**
+	 * Test numbers, and phrases that aren't a single plain word.
+	 */
+	@Test
+	public void testOther() {
+		// Digits aren't read aloud, so they are treated as consonants
+		assertArticle("a", "8", "11", "18", "1", "100");
+		assertArticle("an", "eight", "apple", "egg", "ice", "orange", "idea");
+		assertArticle("a", "banana", "cat", "zebra", "big cat");
+
+		assertArticle("a", "");
+		assertArticle("an", "-dash", "  space", "hour later", "hour\nlater");
+
+		// Only the given part of the phrase is looked at
+		assertEquals("an", EnglishUtils.pickIndefinite("the hour", 4, 8));
+		assertEquals("a", EnglishUtils.pickIndefinite("an unicorn", 3, 10));
+	}
+
+	private static void assertArticle(String article, String... words) {
+		for (String word : words) {
+			assertEquals(word, article, EnglishUtils.pickIndefinite(word));
+		}
+	}
+}
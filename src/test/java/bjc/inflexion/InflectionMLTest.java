@@ -3,9 +3,28 @@ package bjc.inflexion;
 import static bjc.inflexion.InflectionML.inflect;
 import static bjc.inflexion.InflectionMLTest.InflectPair.pair;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
 
+import bjc.inflexion.nouns.InflectionException;
+import bjc.inflexion.nouns.Nouns;
+import bjc.inflexion.nouns.Prepositions;
+
 /**
  * Tests for inflection markup.
  *
@@ -228,6 +247,339 @@ public class InflectionMLTest {
 				pair("7 brethren found", 7, "brother"));
 	}
 
+	/**
+	 * Test that separately configured inflectors don't affect each other.
+	 */
+	@Test
+	public void testInflector() {
+		Prepositions prepDB = new Prepositions();
+		Nouns nounDB = new Nouns(prepDB);
+		nounDB.loadFromStream(new ByteArrayInputStream(
+				"index => indexen".getBytes(StandardCharsets.UTF_8)));
+
+		Inflector inflector = new Inflector(prepDB, nounDB);
+
+		assertEquals("2 indexen", inflector.inflect("<#:2> <N:index>"));
+		assertEquals("2 indexen", inflector.compile("<#:$1> <N:index>").inflect(2));
+
+		assertEquals("2 indexes", inflect("<#:2> <N:index>"));
+		assertEquals("2 indexes", new InflectionString("<#:$1> <N:index>").inflect(2));
+
+		// Compiled strings pick up nouns added later
+		InflectionString strang = inflector.compile("<#:$1> <N:cat>");
+		InflectionRenderer renderer = strang.specialize();
+		assertEquals("2 cats", strang.inflect(2));
+
+		nounDB.addIrregular("cat", null, "kine");
+
+		assertEquals("2 kine", strang.inflect(2));
+		assertEquals("2 kine", renderer.inflect(2));
+		assertEquals("2 kine", inflector.inflect("<#:2> <N:cat>"));
+
+		// And nouns loaded later
+		strang = inflector.compile("<#:$1> <N:dog>");
+		renderer = strang.specialize();
+		assertEquals("2 dogs", renderer.inflect(2));
+
+		nounDB.loadFromStream(new ByteArrayInputStream(
+				"dog => doggen".getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals("2 doggen", strang.inflect(2));
+		assertEquals("2 doggen", renderer.inflect(2));
+	}
+
+	/**
+	 * Test that articles are picked by the noun that follows them.
+	 */
+	@Test
+	public void testArticles() {
+		assertEquals("an ox and a cow", inflect("<#a:1> <N:oxen> and <#a:1> <N:cows>"));
+		assertEquals("an hour and {an1}",
+				new InflectionString("<#a:$1> <N:hours> and $2").inflect(1, "{an1}"));
+	}
+
+	/**
+	 * Test that specialized strings render the same as the strings they came
+	 * from.
+	 */
+	@Test
+	public void testSpecialize() {
+		InflectionString strang = new InflectionString(
+				"Found <#a:$1> <N:$2> in <#wi:$1> <nc:formula>, $3");
+		InflectionRenderer renderer = strang.specialize();
+
+		assertEquals(strang.toString(), renderer.toString());
+
+		for (int count : new int[] {
+				0, 1, 2, 12
+		}) {
+			assertEquals(strang.inflect(count, "hours", "ok"),
+					renderer.inflect(count, "hours", "ok"));
+		}
+
+		assertEquals("Found an hour in two formulae, ok",
+				renderer.inflect(1, "hours", "ok"));
+	}
+
+	/**
+	 * Test that nested sequences render in order.
+	 */
+	@Test
+	public void testSequences() {
+		InflectionDirective count = InflectionDirective.numeric("1");
+		count.isVRef = true;
+
+		InflectionString strang = new InflectionString(Arrays.asList(
+				InflectionDirective.literal("Found "),
+				InflectionDirective.seq(count, InflectionDirective.seq(
+						InflectionDirective.literal(" "), InflectionDirective.noun("cats"))),
+				InflectionDirective.literal(".")));
+
+		assertEquals("Found 1 cat.", strang.inflect(1));
+		assertEquals("Found 3 cats.", strang.inflect(3));
+		assertEquals("Found 3 cats.", strang.specialize().inflect(3));
+	}
+
+	/**
+	 * Test binding variables by slot.
+	 */
+	@Test
+	public void testBindings() {
+		InflectionString strang = new InflectionString(
+				"$who found <#w:$2> <N:$what> and $2 <N:file>");
+
+		assertEquals(1, strang.slotOf("2"));
+		assertEquals(-1, strang.slotOf("1"));
+		assertEquals(-1, strang.slotOf("nope"));
+
+		InflectionBindings bindings = strang.newBindings();
+		int what = bindings.slotOf("what");
+
+		bindings.set("who", "Bob").set("2", 1).set(what, "cat");
+		assertEquals("Bob found one cat and 1 file", strang.inflect(bindings));
+
+		bindings.set("2", 3).set(what, "mouse");
+		assertEquals("Bob found three mice and 3 files", strang.inflect(bindings));
+		assertEquals("Bob found three mice and 3 files",
+				strang.specialize().inflect(bindings));
+
+		try {
+			strang.inflect(bindings.clear());
+
+			fail("Cleared bindings were still bound");
+		} catch (IllegalArgumentException iaex) {
+			// Expected
+		}
+
+		try {
+			new InflectionString("$1").inflect(bindings);
+
+			fail("Bindings were used with a different string");
+		} catch (IllegalArgumentException iaex) {
+			// Expected
+		}
+
+		// Named variables can't be bound by position
+		try {
+			strang.inflect("Bob", 3, "mouse");
+
+			fail("Named variable was bound by position");
+		} catch (IllegalArgumentException iaex) {
+			// Expected
+		}
+
+		try {
+			new InflectionString("$1 and $2").inflect("one");
+
+			fail("Missing argument was bound");
+		} catch (IllegalArgumentException iaex) {
+			// Expected
+		}
+
+		assertEquals("null and 2", new InflectionString("$1 and $2").inflect(null, 2));
+	}
+
+	/**
+	 * Test strings whose nouns and counts are known when they are made.
+	 */
+	@Test
+	public void testLiterals() {
+		InflectionString strang = new InflectionString(
+				"<#a:1> <N:hour>, <#w:2> <N:mother-in-law> and <#:$1> <nc:formula>");
+		InflectionRenderer renderer = strang.specialize();
+
+		assertEquals("an hour, two mothers-in-law and 1 formula", strang.inflect(1));
+		assertEquals("an hour, two mothers-in-law and 3 formulae", strang.inflect(3));
+		assertEquals("an hour, two mothers-in-law and 3 formulae", renderer.inflect(3));
+
+		// Articles still come from the form that is printed
+		strang = new InflectionString("<#a:$1> <N:umbrella> for <#a:1> <np:hour>");
+
+		assertEquals("an umbrella for an hours", strang.inflect(1));
+		assertEquals("2 umbrellas for an hours", strang.inflect(2));
+		assertEquals("2 umbrellas for an hours", strang.specialize().inflect(2));
+	}
+
+	/**
+	 * Test inflecting markup as it is read.
+	 *
+	 * @throws IOException
+	 *                     Never.
+	 */
+	@Test
+	public void testStreaming() throws IOException {
+		Inflector inflector = Inflector.getDefault();
+
+		String markup = "<#a:1> <N:hour> passed, then <#w:3> <N:mother-in-law> left.\n"
+				+ "<#a:1> long pause before the <N:umbrella> <#:0> <N:cat>";
+
+		// Small buffers split directives, and articles from their nouns
+		for (int size : new int[] {
+				24, 32, 50, 1024
+		}) {
+			StringWriter out = new StringWriter();
+			InflectionML.inflect(inflector, new StringReader(markup), out, size);
+
+			assertEquals(inflect(markup), out.toString());
+		}
+
+		try {
+			InflectionML.inflect(inflector, new StringReader("<#w:1000000>"),
+					new StringWriter(), 8);
+
+			fail("Directive longer than the buffer was accepted");
+		} catch (InflectionException iex) {
+			// Expected
+		}
+
+		try {
+			InflectionML.inflect(inflector, new StringReader("<#a:1> and on and on"),
+					new StringWriter(), 8);
+
+			fail("Article without a noun was accepted");
+		} catch (InflectionException iex) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Test inflecting a string for many rows at once.
+	 */
+	@Test
+	public void testBulk() {
+		InflectionString strang = new InflectionString("<#wa:$1> <N:$2>");
+		String[] nouns = {
+				"hour", "formula", "mouse"
+		};
+
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			rows.add(new Object[] {
+					i % 4, nouns[i % 3]
+			});
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			List<String> results = strang.inflectAll(rows.spliterator(), pool);
+
+			assertEquals(rows.size(), results.size());
+			for (int i = 0; i < rows.size(); i++) {
+				assertEquals(strang.inflect(rows.get(i)), results.get(i));
+			}
+
+			assertEquals(results, strang.inflectAll(rows.stream()));
+
+			Map<Object[], String> sunk = new ConcurrentHashMap<>();
+			strang.inflectAll(rows.spliterator(), pool, sunk::put);
+
+			assertEquals(rows.size(), sunk.size());
+			assertEquals("an hour", sunk.get(rows.get(9)));
+			assertEquals("two mice", sunk.get(rows.get(3998)));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Test splitting both dialects of markup into tokens.
+	 */
+	@Test
+	public void testMarkupLexer() {
+		String strang = "Found $1 <#w:$2> <N<x>:item>";
+		MarkupLexer lexer = new MarkupLexer(strang, false);
+
+		assertLexes(lexer, MarkupLexer.TokenKind.LITERAL, 0, 6);
+		assertLexes(lexer, MarkupLexer.TokenKind.VARIABLE, 6, 8);
+		assertLexes(lexer, MarkupLexer.TokenKind.LITERAL, 8, 9);
+		assertLexes(lexer, MarkupLexer.TokenKind.DIRECTIVE, 9, 16);
+		assertEquals('#', lexer.name());
+		assertEquals("w", strang.substring(lexer.optionsStart(), lexer.optionsEnd()));
+		assertEquals("$2", strang.substring(lexer.bodyStart(), lexer.bodyEnd()));
+		assertLexes(lexer, MarkupLexer.TokenKind.LITERAL, 16, 17);
+		assertLexes(lexer, MarkupLexer.TokenKind.DIRECTIVE, 17, 28);
+		assertEquals("item", strang.substring(lexer.bodyStart(), lexer.bodyEnd()));
+		assertFalse(lexer.next());
+
+		// Markup only knows about its own forms
+		String markup = "<b><np:items> $1";
+		lexer = new MarkupLexer(markup, true);
+
+		assertLexes(lexer, MarkupLexer.TokenKind.LITERAL, 0, 3);
+		assertLexes(lexer, MarkupLexer.TokenKind.DIRECTIVE, 3, 13);
+		assertEquals("p", markup.substring(lexer.optionsStart(), lexer.optionsEnd()));
+		assertLexes(lexer, MarkupLexer.TokenKind.LITERAL, 13, 16);
+		assertFalse(lexer.next());
+
+		try {
+			new InflectionString("<N> cats");
+
+			fail("Directive without a body was accepted");
+		} catch (InflectionFormatException ifex) {
+			// Expected
+		}
+	}
+
+	private static void assertLexes(MarkupLexer lexer, MarkupLexer.TokenKind kind,
+			int start, int end) {
+		assertTrue(lexer.next());
+		assertEquals(kind, lexer.kind());
+		assertEquals(start, lexer.start());
+		assertEquals(end, lexer.end());
+	}
+
+	/**
+	 * Test that parsed markup is cached and reused.
+	 */
+	@Test
+	public void testTemplateCache() {
+		Inflector defaults = Inflector.getDefault();
+		Inflector inflector = new Inflector(defaults.getPrepositions(),
+				defaults.getNouns(), 2);
+
+		assertEquals("an outcome", inflector.inflect("<#a:1> <N:outcomes>"));
+		assertEquals("an outcome", inflector.inflect("<#a:1> <N:outcomes>"));
+		assertEquals(1, inflector.getTemplateCacheHits());
+		assertEquals(1, inflector.getTemplateCacheMisses());
+
+		// Evicted strings are just parsed again
+		inflector.inflect("<#:2> <N:cat>");
+		inflector.inflect("<#:3> <N:cat>");
+		assertEquals("an outcome", inflector.inflect("<#a:1> <N:outcomes>"));
+		assertTrue(inflector.getTemplateCacheSize() <= 2);
+
+		inflector.resetTemplateCacheStatistics();
+		assertEquals(0, inflector.getTemplateCacheHits());
+		assertEquals(0, inflector.getTemplateCacheMisses());
+
+		Inflector uncached = new Inflector(defaults.getPrepositions(),
+				defaults.getNouns(), 0);
+		assertEquals("7 outcomes", uncached.inflect("<#a:7> <N:outcomes>"));
+		assertEquals(0, uncached.getTemplateCacheMisses());
+		assertEquals(0, uncached.getTemplateCacheSize());
+	}
+
 	private static void assertInflects(String real, InflectPair... pairs) {
 		for (InflectPair pair : pairs) {
 			assertEquals(pair.exp, inflect(String.format(real, pair.pars)));
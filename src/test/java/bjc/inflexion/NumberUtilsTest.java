@@ -0,0 +1,283 @@
+package bjc.inflexion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+import org.junit.Test;
+
+import bjc.inflexion.CardinalState.Cardinalizer;
+import bjc.inflexion.CardinalState.ScaleRange;
+
+/**
+ * Tests for number utilities.
+ *
+ * @author bjculkin
+ *
+ */
+public class NumberUtilsTest {
+	/**
+	 * Test converting numbers to cardinals.
+	 */
+	@Test
+	public void testCardinal() {
+		assertEquals("zero", NumberUtils.toCardinal(0));
+		assertEquals("seventeen", NumberUtils.toCardinal(17));
+		assertEquals("forty", NumberUtils.toCardinal(40));
+		assertEquals("twenty-five", NumberUtils.toCardinal(25));
+		assertEquals("one hundred", NumberUtils.toCardinal(100));
+		assertEquals("three hundred and nine", NumberUtils.toCardinal(309));
+		assertEquals("one thousand, two hundred and thirty-four",
+				NumberUtils.toCardinal(1234));
+		assertEquals("two million", NumberUtils.toCardinal(2_000_000));
+		assertEquals("five trillion, six", NumberUtils.toCardinal(5_000_000_000_006L));
+		assertEquals("negative eleven", NumberUtils.toCardinal(-11));
+
+		assertEquals("nine quintillion, two hundred and twenty-three quadrillion,"
+				+ " three hundred and seventy-two trillion, thirty-six billion,"
+				+ " eight hundred and fifty-four million,"
+				+ " seven hundred and seventy-five thousand, eight hundred and seven",
+				NumberUtils.toCardinal(Long.MAX_VALUE));
+		assertEquals("negative nine quintillion, two hundred and twenty-three quadrillion,"
+				+ " three hundred and seventy-two trillion, thirty-six billion,"
+				+ " eight hundred and fifty-four million,"
+				+ " seven hundred and seventy-five thousand, eight hundred and eight",
+				NumberUtils.toCardinal(Long.MIN_VALUE));
+
+		assertEquals("11", NumberUtils.toCardinal(11, 11));
+
+		StringBuilder sb = new StringBuilder("count: ");
+		assertSame(sb, NumberUtils.toCardinal(42, null, sb));
+		assertEquals("count: forty-two", sb.toString());
+	}
+
+	/**
+	 * Test that customizations apply to each part of a cardinal.
+	 */
+	@Test
+	public void testCustomCardinal() {
+		Map<Long, String> numbers = new HashMap<>();
+		numbers.put(1L, "a");
+		numbers.put(12L, "a dozen");
+
+		Map<LongPredicate, Cardinalizer> scales = new HashMap<>();
+		scales.put(num -> num >= 1_000_000 && num % 1_000_000 == 0,
+				(num, state) -> NumberUtils.toCardinal(num / 1_000_000, state)
+						+ " mega");
+
+		CardinalState custom = new CardinalState(numbers, scales);
+
+		assertEquals("a dozen", NumberUtils.toCardinal(12, custom));
+		assertEquals("a hundred and twenty-a", NumberUtils.toCardinal(121, custom));
+		assertEquals("a dozen thousand, a dozen", NumberUtils.toCardinal(12_012, custom));
+		assertEquals("a dozen mega", NumberUtils.toCardinal(12_000_000, custom));
+	}
+
+	/**
+	 * Test that compiled custom ranges agree with uncompiled ones.
+	 */
+	@Test
+	public void testCompiledCardinal() {
+		Map<Long, String> numbers = new HashMap<>();
+		numbers.put(144L, "a gross");
+
+		List<ScaleRange> ranges = new ArrayList<>();
+		ranges.add(new ScaleRange(10_000_000, 999_999_999,
+				(num, state) -> scale(num, 10_000_000, " crore", state)));
+		ranges.add(new ScaleRange(100_000, 9_999_999,
+				(num, state) -> scale(num, 100_000, " lakh", state)));
+		// Overlaps the lakh range, so is only used below it
+		ranges.add(new ScaleRange(1_000, 999_999,
+				(num, state) -> "many " + NumberUtils.toCardinal(num)));
+
+		CardinalState custom = new CardinalState(numbers, new HashMap<>(), ranges);
+		CardinalState compiled = custom.compile();
+
+		assertSame(compiled, compiled.compile());
+
+		assertEquals("a gross", NumberUtils.toCardinal(144, compiled));
+		assertEquals("many one thousand", NumberUtils.toCardinal(1_000, compiled));
+		assertEquals("one lakh", NumberUtils.toCardinal(100_000, compiled));
+		assertEquals("twelve crore, thirty-four lakh, many fifty-six thousand",
+				NumberUtils.toCardinal(123_456_000, compiled));
+		assertEquals("one billion", NumberUtils.toCardinal(1_000_000_000, compiled));
+
+		for (long num : new long[] {
+				-5, 0, 144, 999, 1_000, 99_999, 100_000, 9_999_999, 10_000_000,
+				123_456_789, 999_999_999, 1_000_000_000, Long.MAX_VALUE
+		}) {
+			assertEquals(NumberUtils.toCardinal(num, custom),
+					NumberUtils.toCardinal(num, compiled));
+		}
+
+		// The compiled form is a snapshot
+		numbers.put(12L, "a dozen");
+		assertEquals("twelve", NumberUtils.toCardinal(12, compiled));
+
+		try {
+			new ScaleRange(2, 1, (num, state) -> "");
+
+			fail("Empty range was accepted");
+		} catch (IllegalArgumentException iaex) {
+			// Expected
+		}
+	}
+
+	private static String scale(long num, long size, String name, CardinalState state) {
+		String res = NumberUtils.toCardinal(num / size, state) + name;
+
+		if (num % size != 0)
+			res += ", " + NumberUtils.toCardinal(num % size, state);
+
+		return res;
+	}
+
+	/**
+	 * Test converting numbers to ordinals.
+	 */
+	@Test
+	public void testOrdinal() {
+		assertEquals("zeroth", NumberUtils.toOrdinal(0));
+		assertEquals("twelfth", NumberUtils.toOrdinal(12));
+		assertEquals("thirty-third", NumberUtils.toOrdinal(33));
+		assertEquals("113th", NumberUtils.toOrdinal(113));
+		assertEquals("22nd", NumberUtils.toOrdinal(22, false));
+		assertEquals("minus first", NumberUtils.toOrdinal(-1));
+		assertEquals("minus 9223372036854775808th",
+				NumberUtils.toOrdinal(Long.MIN_VALUE, false));
+	}
+
+	/**
+	 * Test parsing numbers back out of text.
+	 */
+	@Test
+	public void testParseNumber() {
+		for (long num : new long[] {
+				0, 7, 13, 20, 21, 99, 100, 101, 120, 999, 1_000, 1_001, 12_345,
+				1_000_000, 123_456_789_012L, -45, Long.MAX_VALUE, Long.MIN_VALUE
+		}) {
+			assertEquals(num, NumberUtils.fromCardinal(NumberUtils.toCardinal(num)));
+			assertEquals(num, NumberUtils.fromOrdinal(NumberUtils.toOrdinal(num)));
+			assertEquals(num, NumberUtils.fromOrdinal(NumberUtils.toOrdinal(num, false)));
+		}
+
+		assertEquals(1_005, NumberUtils.fromCardinal("One thousand and five"));
+		assertEquals(101, NumberUtils.fromOrdinal("one hundred and first"));
+
+		String text = "found two hundred and forty-five items";
+		ParsePosition pos = new ParsePosition(6);
+		assertEquals(245, NumberUtils.parseNumber(text, pos));
+		assertEquals(32, pos.getIndex());
+
+		// Scales out of order are an error, not the end of the number
+		pos = new ParsePosition(0);
+		NumberUtils.parseNumber("one thousand two million", pos);
+		assertEquals(0, pos.getIndex());
+		assertEquals(17, pos.getErrorIndex());
+
+		for (String bad : new String[] {
+				"", "fivefold", "twenty-first", "22nd", "ten quintillion", "forty-"
+		}) {
+			try {
+				NumberUtils.fromCardinal(bad);
+
+				fail("'" + bad + "' was parsed as a cardinal");
+			} catch (NumberFormatException nfex) {
+				// Expected
+			}
+		}
+
+		try {
+			NumberUtils.fromOrdinal("22th");
+
+			fail("'22th' was parsed as an ordinal");
+		} catch (NumberFormatException nfex) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Test that small numbers are cached, and that the cache can be resized.
+	 */
+	@Test
+	public void testNumberCache() {
+		try {
+			NumberUtils.setNumberCacheSize(100);
+
+			assertSame(NumberUtils.toCardinal(42), NumberUtils.toCardinal(42));
+			assertSame(NumberUtils.toOrdinal(42), NumberUtils.toOrdinal(42));
+			assertSame(NumberUtils.toOrdinal(42, false),
+					NumberUtils.toOrdinal(42, false));
+
+			// Out of range, so not cached
+			assertNotSame(NumberUtils.toCardinal(142), NumberUtils.toCardinal(142));
+
+			NumberUtils.setNumberCacheSize(0);
+			assertEquals(0, NumberUtils.getNumberCacheSize());
+			assertEquals("forty-two", NumberUtils.toCardinal(42));
+			assertNotSame(NumberUtils.toCardinal(42), NumberUtils.toCardinal(42));
+		} finally {
+			NumberUtils.setNumberCacheSize(NumberUtils.DEFAULT_NUMBER_CACHE_SIZE);
+		}
+	}
+
+	/**
+	 * Test grouping digits.
+	 */
+	@Test
+	public void testCommaString() {
+		assertEquals("1,234,567", NumberUtils.toCommaString(1234567, 0, ' ', 3, ',', false, 10));
+		assertEquals("  +1_0000", NumberUtils.toCommaString(10000, 9, ' ', 4, '_', true, 10));
+		assertEquals("-FF", NumberUtils.toCommaString(-255, 0, ' ', 0, ',', false, 16));
+		assertEquals("0000", NumberUtils.toNormalString(0, 4, '0', false, 10));
+		assertEquals("-9,223,372,036,854,775,808",
+				NumberUtils.toCommaString(Long.MIN_VALUE, 0, ' ', 3, ',', false, 10));
+
+		StringBuilder sb = new StringBuilder("total: ");
+		NumberUtils.toCommaString(98765, 0, ' ', 3, ',', false, 10, sb);
+		assertEquals("total: 98,765", sb.toString());
+	}
+
+	/**
+	 * Test converting numbers to and from roman numerals.
+	 */
+	@Test
+	public void testRoman() {
+		assertEquals("MCMXCIV", NumberUtils.toRoman(1994, false));
+		assertEquals("MDCCCCLXXXXIIII", NumberUtils.toRoman(1994, true));
+		assertEquals("N", NumberUtils.toRoman(0, false));
+		assertEquals("-XL", NumberUtils.toRoman(-40, false));
+
+		assertEquals(1994, NumberUtils.fromRoman("MCMXCIV"));
+		assertEquals(1994, NumberUtils.fromRoman("MDCCCCLXXXXIIII"));
+		assertEquals(4, NumberUtils.fromRoman("iv"));
+		assertEquals(-40, NumberUtils.fromRoman("-XL"));
+		assertEquals(0, NumberUtils.fromRoman("N"));
+
+		for (String bad : new String[] {
+				"", "IIV", "VV", "IM", "MCMXCIIII", "X1"
+		}) {
+			try {
+				NumberUtils.fromRoman(bad);
+
+				fail("Accepted bad numeral " + bad);
+			} catch (NumberFormatException nfex) {
+				// Expected
+			}
+		}
+
+		StringBuilder sb = new StringBuilder();
+		NumberUtils.toRoman(new long[] {
+				1, 2, 3, 4
+		}, false, ", ", sb);
+		assertEquals("I, II, III, IV", sb.toString());
+	}
+}
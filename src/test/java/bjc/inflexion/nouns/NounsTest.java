@@ -0,0 +1,269 @@
+package bjc.inflexion.nouns;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import bjc.inflexion.internal.BoundedCache;
+
+/**
+ * Tests for the noun database.
+ *
+ * @author bjculkin
+ *
+ */
+public class NounsTest {
+	/**
+	 * Test that suffix inflections are picked in the order they were defined.
+	 */
+	@Test
+	public void testSuffixOrder() {
+		Nouns nouns = load("-ouse => -ice", "*mouse => *mouses", "-se => -ses",
+				"*ox => | *oxen");
+
+		// Earlier, shorter suffixes win over later, longer ones
+		assertEquals("dormice", nouns.getNoun("dormouse").plural());
+		assertEquals("mice", nouns.getNoun("mouse").plural());
+		assertEquals("lapses", nouns.getNoun("lapse").plural());
+
+		// Complete affixes also match whole words
+		assertEquals("oxen", nouns.getNoun("ox").plural());
+		assertEquals("boxen", nouns.getNoun("box").plural());
+		assertEquals("ox", nouns.getNoun("oxen").singular());
+
+		// The stem has to be made of word characters
+		assertEquals("big mouses", nouns.getNoun("big mouse").plural());
+
+		// Nothing matched, so use the default
+		assertEquals("cats", nouns.getNoun("cat").plural());
+	}
+
+	/**
+	 * Test that cached nouns are reused until the DB changes.
+	 */
+	@Test
+	public void testCache() {
+		Nouns nouns = new Nouns(new Prepositions(), 2);
+
+		Noun cat = nouns.getNoun("cat");
+		assertSame(cat, nouns.getNoun("cat"));
+		assertEquals(0, nouns.getVersion());
+
+		// Every change to the DB bumps its version
+		load(nouns, "cat => kine");
+		long loaded = nouns.getVersion();
+		assertTrue(loaded > 0);
+
+		Noun newCat = nouns.getNoun("cat");
+		assertNotSame(cat, newCat);
+		assertEquals("kine", newCat.plural());
+
+		// Evicted nouns still resolve the same way
+		nouns.getNoun("dog");
+		nouns.getNoun("bird");
+		nouns.getNoun("fish");
+		assertEquals("kine", nouns.getNoun("cat").plural());
+
+		nouns.addIrregular("dog", "dogz", null);
+		assertTrue(nouns.getVersion() > loaded);
+		assertEquals("dogz", nouns.getNoun("dog").plural());
+
+		// The cache never holds more than its size
+		BoundedCache<Integer, Integer> cache = new BoundedCache<>(17);
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, i);
+		}
+		assertTrue(cache.size() <= 17);
+	}
+
+	/**
+	 * Test that resolved forms agree with the noun they came from.
+	 */
+	@Test
+	public void testForms() {
+		Nouns nouns = load("*formula => *formulas | *formulae", "sheep => sheep");
+
+		NounForms forms = nouns.getForms("formulae");
+		assertTrue(forms.isPlural());
+		assertEquals("formula", forms.singular());
+		assertEquals("formulae", forms.plural());
+		assertEquals("formulas", forms.modernPlural());
+		assertFalse(forms.isUninflected());
+
+		forms = nouns.getForms("formula");
+		assertTrue(forms.isSingular());
+		assertEquals("formulae", forms.classicalPlural());
+		assertTrue(forms.isDifferingPlural());
+
+		assertTrue(nouns.getForms("sheep").isUninflected());
+
+		// Nouns and their forms agree on whether the plurals differ
+		assertTrue(nouns.getNoun("formula").isDifferingPlural());
+		assertFalse(nouns.getNoun("sheep").isDifferingPlural());
+		assertFalse(nouns.getForms("sheep").isDifferingPlural());
+	}
+
+	/**
+	 * Test that the built-in tables load the same DB as the text files.
+	 */
+	@Test
+	public void testPredefined() {
+		Prepositions textPreps = new Prepositions();
+		textPreps.loadFromStream(resource("/prepositions.txt"));
+		Nouns text = new Nouns(textPreps);
+		text.loadFromStream(resource("/nouns.txt"));
+
+		Prepositions tablePreps = new Prepositions();
+		Nouns tables = new Nouns(tablePreps);
+		tables.loadPredefined();
+
+		assertEquals(textPreps.getPrepositions(), tablePreps.getPrepositions());
+
+		// Every form of every rule, alone and on the end of a longer word
+		List<String> words = new ArrayList<>();
+		NounRule.read(resource("/nouns.txt"), rule -> {
+			for (String form : new String[] {
+					rule.singular, rule.modernPlural, rule.classicalPlural
+			}) {
+				if (form == null)
+					continue;
+
+				String word = String.format(form, "cat", "of", "big");
+
+				words.add(word);
+				words.add("over" + word);
+			}
+		});
+
+		assertTrue(words.size() > 5000);
+
+		for (String word : words) {
+			assertEquals(word, describe(text, word), describe(tables, word));
+		}
+	}
+
+	/**
+	 * Test resolving batches of nouns in parallel.
+	 */
+	@Test
+	public void testBatch() {
+		Nouns nouns = load(new Nouns(new Prepositions(), 16),
+				"*formula => *formulas | *formulae", "sheep => sheep", "mouse => mice");
+
+		String[] words = new String[5000];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = new String[] {
+					"formulae", "mice", "cat", "sheep", "mouse"
+			}[i % 5];
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			String[] singulars = nouns.singularizeAll(words, pool);
+			String[] plurals = nouns.pluralizeAll(words, pool);
+			NounForms[] forms = nouns.resolveAll(words, pool);
+
+			for (int i = 0; i < words.length; i++) {
+				assertEquals(nouns.getNoun(words[i]).singular(), singulars[i]);
+				assertEquals(nouns.getNoun(words[i]).plural(), plurals[i]);
+				assertEquals(words[i], forms[i].getWord());
+			}
+
+			// Repeated words share one result
+			assertSame(forms[0], forms[5]);
+		} finally {
+			pool.shutdown();
+		}
+
+		assertEquals(Arrays.asList("formula", "mouse", "cat"),
+				nouns.singularizeAll(Arrays.asList("formulae", "mice", "cats")));
+		assertEquals(Arrays.asList("formulas", "mice", "cats"),
+				nouns.pluralizeAll(Arrays.asList("formula", "mice", "cat")));
+	}
+
+	/**
+	 * Test that user inflections take effect at once, even for cached nouns.
+	 */
+	@Test
+	public void testUserInflections() {
+		Nouns nouns = load("mouse => mice");
+
+		UserInflections empty = nouns.getUserInflections();
+		assertEquals(0, empty.getVersion());
+
+		assertEquals("cats", nouns.getNoun("cat").plural());
+		assertEquals("mice", nouns.getNoun("mouse").plural());
+
+		UserInflections added = nouns.addIrregular("cat", null, "kine");
+		assertEquals(1, added.getVersion());
+		assertSame(added, nouns.getUserInflections());
+
+		// Cached nouns pick up the new inflection
+		assertEquals("kine", nouns.getNoun("cat").plural());
+		assertEquals("cat", nouns.getNoun("kine").singular());
+		assertEquals("kine", nouns.getForms("cat").plural());
+
+		nouns.addInflection(new IrregularNounInflection("mouse", "mouses", null, false));
+		assertEquals(2, nouns.getUserInflections().getVersion());
+
+		// User inflections are checked before the loaded ones
+		assertEquals("mouses", nouns.getNoun("mouse").plural());
+
+		// Old snapshots don't change
+		assertEquals(null, empty.getIrregular("cat"));
+		assertTrue(added.getInflections().isEmpty());
+		assertEquals(1, nouns.getUserInflections().getInflections().size());
+
+		try {
+			nouns.addIrregular("dog", null, null);
+
+			fail("Added a noun without any plurals");
+		} catch (IllegalArgumentException iaex) {
+			assertEquals(2, nouns.getUserInflections().getVersion());
+		}
+	}
+
+	private static String describe(Nouns nouns, String word) {
+		try {
+			Noun noun = nouns.getNoun(word);
+
+			return String.format("%s %s %s %s", noun.getInflection(), noun.singular(),
+					noun.modernPlural(), noun.classicalPlural());
+		} catch (RuntimeException ex) {
+			return ex.toString();
+		}
+	}
+
+	private static InputStream resource(String name) {
+		return NounsTest.class.getResourceAsStream(name);
+	}
+
+	private static Nouns load(String... lines) {
+		return load(new Nouns(new Prepositions()), lines);
+	}
+
+	private static Nouns load(Nouns nouns, String... lines) {
+
+		nouns.loadFromStream(stream(String.join("\n", lines)));
+
+		return nouns;
+	}
+
+	private static InputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+}